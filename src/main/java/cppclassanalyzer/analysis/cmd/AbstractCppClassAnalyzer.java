@@ -54,6 +54,8 @@ public abstract class AbstractCppClassAnalyzer extends AbstractAnalyzer {
 
 	protected Program program;
 	protected TaskMonitor monitor;
+	protected AddressSetView set;
+	protected boolean incremental;
 
 	protected ProgramClassTypeInfoManager manager;
 
@@ -91,6 +93,8 @@ public abstract class AbstractCppClassAnalyzer extends AbstractAnalyzer {
 		this.program = program;
 		this.monitor = monitor;
 		this.log = log;
+		this.set = set;
+		this.incremental = CppClassAnalyzerUtils.isPartialSet(program, set);
 		this.manager = CppClassAnalyzerUtils.getManager(program);
 		if (manager == null) {
 			return false;
@@ -122,6 +126,10 @@ public abstract class AbstractCppClassAnalyzer extends AbstractAnalyzer {
 		monitor.setMessage("Fixing Class Inheritance...");
 		for (ClassTypeInfo type : manager.getTypes()) {
 			monitor.checkCanceled();
+			if (incremental && !set.contains(type.getAddress())) {
+				monitor.incrementProgress(1);
+				continue;
+			}
 			if (type.getName().contains(TypeInfoModel.STRUCTURE_NAME)) {
 				// this works for both vs and gcc
 				monitor.incrementProgress(1);
@@ -148,6 +156,10 @@ public abstract class AbstractCppClassAnalyzer extends AbstractAnalyzer {
 		monitor.setMessage("Analyzing Vftables");
 		for (Vtable vtable : manager.getVtables()) {
 			monitor.checkCanceled();
+			if (!isAnalyzed(vtable)) {
+				monitor.incrementProgress(1);
+				continue;
+			}
 			if (useArchivedData) {
 				ArchivedVtable data =
 					service.getArchivedVtable(VtableUtils.getSymbolName(vtable));
@@ -169,6 +181,19 @@ public abstract class AbstractCppClassAnalyzer extends AbstractAnalyzer {
 		}
 	}
 
+	/**
+	 * Checks if the vtable or its type is within the analyzed address set
+	 * @param vtable the vtable
+	 * @return true if the vtable should be analyzed
+	 */
+	protected boolean isAnalyzed(Vtable vtable) {
+		if (!incremental) {
+			return true;
+		}
+		return set.contains(vtable.getAddress())
+			|| set.contains(vtable.getTypeInfo().getAddress());
+	}
+
 	protected boolean shouldAnalyzeConstructors() {
 		return constructorAnalysisOption;
 	}
@@ -182,6 +207,10 @@ public abstract class AbstractCppClassAnalyzer extends AbstractAnalyzer {
 		monitor.setMessage("Creating Constructors");
 		for (Vtable vtable : manager.getVtableIterable(true)) {
 			monitor.checkCanceled();
+			if (!isAnalyzed(vtable)) {
+				monitor.incrementProgress(1);
+				continue;
+			}
 			analyzeConstructor(vtable.getTypeInfo());
 			monitor.incrementProgress(1);
 		}
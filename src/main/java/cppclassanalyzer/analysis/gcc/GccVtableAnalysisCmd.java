@@ -3,7 +3,6 @@ package cppclassanalyzer.analysis.gcc;
 import ghidra.app.cmd.data.rtti.ClassTypeInfo;
 import ghidra.app.cmd.data.rtti.GnuVtable;
 import ghidra.app.cmd.data.rtti.Vtable;
-import ghidra.app.cmd.data.rtti.gcc.VtableUtils;
 import ghidra.app.cmd.data.rtti.gcc.VttModel;
 import ghidra.app.cmd.function.CreateThunkFunctionCmd;
 import ghidra.framework.cmd.BackgroundCommand;
@@ -50,11 +49,11 @@ public class GccVtableAnalysisCmd extends BackgroundCommand {
 		this.monitor = monitor;
 		try {
 			Vtable vtable = typeinfo.getVtable();
-			VttModel vtt = null;
+			VttModel vtt = VttModel.INVALID;
 			if (Vtable.isValid(vtable)) {
-				vtt = VtableUtils.getVttModel(program, (GnuVtable) vtable);
+				vtt = CppClassAnalyzerUtils.getManager(program).getVtt(typeinfo);
 			}
-			if (vtt != null && vtt.isValid()) {
+			if (vtt.isValid()) {
 				for (Vtable parentVtable : vtt.getConstructionVtableModels()) {
 					monitor.checkCanceled();
 					setupFunctions(parentVtable);
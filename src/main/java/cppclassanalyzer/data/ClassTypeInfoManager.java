@@ -1,5 +1,8 @@
 package cppclassanalyzer.data;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.swing.Icon;
@@ -49,6 +52,19 @@ public interface ClassTypeInfoManager extends ErrorHandler {
 	 */
 	ClassTypeInfoDB resolve(ClassTypeInfo type);
 
+	/**
+	 * Resolves all of the types at once. Managers which support it resolve
+	 * the types in a single transaction and publish a single change event.
+	 * @param types the types to resolve
+	 * @return the equivalent types managed by this ClassTypeInfoManager in the order provided
+	 * @see #resolve(ClassTypeInfo)
+	 */
+	default List<ClassTypeInfoDB> resolveAll(Collection<? extends ClassTypeInfo> types) {
+		return types.stream()
+			.map(this::resolve)
+			.collect(Collectors.toList());
+	}
+
 	/**
 	 * Gets the ClassTypeInfo for the corresponding database key
 	 * @param key the database key
@@ -1,16 +1,22 @@
 package cppclassanalyzer.data;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import ghidra.app.cmd.data.rtti.ClassTypeInfo;
 import ghidra.app.cmd.data.rtti.TypeInfo;
 import ghidra.app.cmd.data.rtti.Vtable;
 import ghidra.app.cmd.data.rtti.gcc.UnresolvedClassTypeInfoException;
+import ghidra.app.cmd.data.rtti.gcc.VttModel;
 import ghidra.framework.model.DomainObjectListener;
 
 import cppclassanalyzer.data.typeinfo.ArchivedClassTypeInfo;
 import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
 import cppclassanalyzer.data.vtable.ArchivedGnuVtable;
 import ghidra.program.model.address.Address;
+import ghidra.program.model.address.AddressSetView;
 import ghidra.program.model.listing.Program;
 import ghidra.util.UniversalID;
 import ghidra.util.exception.CancelledException;
@@ -44,6 +50,20 @@ public interface ProgramClassTypeInfoManager extends TypeInfoManager, ClassTypeI
 	 */
 	Vtable resolve(Vtable vtable);
 
+	/**
+	 * Resolves all of the vtables at once.
+	 * Vtables which are already managed are reused.
+	 * @param vtables the vtables to resolve
+	 * @return the equivalent vtables managed by this ProgramClassTypeInfoManager
+	 * in the order provided
+	 * @see #resolve(Vtable)
+	 */
+	default List<Vtable> resolveAllVtables(Collection<? extends Vtable> vtables) {
+		return vtables.stream()
+			.map(this::resolve)
+			.collect(Collectors.toList());
+	}
+
 	/**
 	 * Gets the Vtable at the specified address
 	 * @param address the address of the vtable
@@ -63,6 +83,15 @@ public interface ProgramClassTypeInfoManager extends TypeInfoManager, ClassTypeI
 	 */
 	Iterable<ClassTypeInfoDB> getTypes(boolean reverse);
 
+	/**
+	 * Gets the managed ClassTypeInfos located within the address set in the same
+	 * order as {@link #getTypes(boolean)}
+	 * @param set the address set
+	 * @param reverse true if the types should be provided in reverse
+	 * @return the ClassTypeInfos within the address set
+	 */
+	List<ClassTypeInfoDB> getTypes(AddressSetView set, boolean reverse);
+
 	/**
 	 * Gets an iterable over all the managed Vtables
 	 * @return an iterable over all the managed Vtables
@@ -122,6 +151,42 @@ public interface ProgramClassTypeInfoManager extends TypeInfoManager, ClassTypeI
 	 */
 	void findVtables(TaskMonitor monitor) throws CancelledException;
 
+	/**
+	 * Attempts to locate the vtables for the managed ClassTypeInfos located within
+	 * the address set. Previously located vtables are reused.
+	 * @param set the address set containing the ClassTypeInfos
+	 * @param monitor the TaskMonitor used to monitor the progress
+	 * @throws CancelledException if the task is cancelled
+	 */
+	void findVtables(AddressSetView set, TaskMonitor monitor) throws CancelledException;
+
+	/**
+	 * Locates the VTTs for all of the managed ClassTypeInfos with a vtable
+	 * and stores them with this manager. Each VTT is a per-type lookup of the
+	 * references to its vtable in the program's shared
+	 * {@link cppclassanalyzer.utils.DataReferenceIndex DataReferenceIndex}
+	 * which is built at most once for all of the types.
+	 * @param monitor the TaskMonitor used to monitor the progress
+	 * @throws CancelledException if the task is cancelled
+	 */
+	void findVtts(TaskMonitor monitor) throws CancelledException;
+
+	/**
+	 * Gets the stored VTT for the ClassTypeInfo.
+	 * If none has been stored yet it is located and, within a transaction, stored.
+	 * @param type the ClassTypeInfo
+	 * @return the ClassTypeInfo's VTT or {@link VttModel#INVALID} if it has none
+	 * @see #findVtts(TaskMonitor)
+	 */
+	VttModel getVtt(ClassTypeInfo type);
+
+	/**
+	 * Checks if the ClassTypeInfo at the specified address has already been resolved
+	 * @param address the address of the ClassTypeInfo
+	 * @return true if the ClassTypeInfo is managed by this ClassTypeInfoManager
+	 */
+	boolean containsType(Address address);
+
 	/**
 	 * Returns a ClassTypeInfo that is managed by this ClassTypeInfoManager.
 	 * If the ArchivedClassTypeInfo hasn't already been resolved the type
@@ -1,13 +1,17 @@
 package cppclassanalyzer.data.manager;
 
 import java.io.IOException;
-import java.util.stream.LongStream;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import ghidra.app.cmd.data.rtti.ClassTypeInfo;
 import ghidra.app.cmd.data.rtti.Vtable;
 import ghidra.program.database.DBObjectCache;
 import ghidra.program.database.DatabaseObject;
+import ghidra.program.model.address.Address;
 import cppclassanalyzer.data.manager.caches.RttiCachePair;
 import cppclassanalyzer.data.manager.recordmanagers.RttiRecordManager;
 import cppclassanalyzer.data.manager.tables.RttiTablePair;
@@ -19,6 +23,8 @@ import cppclassanalyzer.database.utils.TransactionHandler;
 import cppclassanalyzer.plugin.ClassTypeInfoManagerPlugin;
 import cppclassanalyzer.plugin.TypeInfoArchiveChangeRecord;
 import cppclassanalyzer.plugin.TypeInfoArchiveChangeRecord.ChangeType;
+import db.RecordIterator;
+import db.Table;
 import db.util.ErrorHandler;
 
 public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
@@ -40,6 +46,14 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 
 	abstract void releaseLock();
 
+	/**
+	 * Acquires the lock for reading. Workers without a shared read mode
+	 * may acquire their exclusive lock.
+	 */
+	abstract void acquireReadLock();
+
+	abstract void releaseReadLock();
+
 	abstract long getTypeKey(ClassTypeInfo type);
 
 	abstract long getVtableKey(Vtable vtable);
@@ -54,11 +68,53 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 
 	abstract ClassTypeInfoManagerPlugin getPlugin();
 
+	/**
+	 * Notifies the worker that a type record is about to be written to its table
+	 * so that any derived columns and indexes may be updated. The table still holds
+	 * the previous version of the record, if any.
+	 * @param record the record to be written
+	 */
+	void prepareTypeRecord(db.Record record) {
+	}
+
+	/**
+	 * Notifies the worker that a type record has been written to its table
+	 * @param record the written record
+	 */
+	void typeRecordChanged(db.Record record) {
+	}
+
+	/**
+	 * Notifies the worker that a new vtable record is about to be written to its table
+	 * so that any columns without a usable default may be initialized
+	 * @param record the record to be written
+	 */
+	void prepareVtableRecord(db.Record record) {
+	}
+
+	/**
+	 * Notifies the worker that a vtable record has been written to its table
+	 * @param record the written record
+	 */
+	void vtableRecordChanged(db.Record record) {
+	}
+
+	/**
+	 * Grows the caches to the current size of the tables
+	 */
+	final void adaptCaches() {
+		caches.adapt(
+			tables.getTypeTable().getRecordCount(), tables.getVtableTable().getRecordCount());
+	}
+
 	private T3 createTypeRecord(long key) throws IOException {
 		acquireLock();
 		try {
 			T3 record = tables.getTypeSchema().getNewRecord(key);
+			prepareTypeRecord(record.getRecord());
 			tables.getTypeTable().putRecord(record.getRecord());
+			typeRecordChanged(record.getRecord());
+			adaptCaches();
 			return record;
 		} finally {
 			releaseLock();
@@ -69,7 +125,10 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 		acquireLock();
 		try {
 			T4 record = tables.getVtableSchema().getNewRecord(key);
+			prepareVtableRecord(record.getRecord());
 			tables.getVtableTable().putRecord(record.getRecord());
+			vtableRecordChanged(record.getRecord());
+			adaptCaches();
 			return record;
 		} finally {
 			releaseLock();
@@ -78,7 +137,7 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 
 	@Override
 	public final T3 getTypeRecord(long key) {
-		acquireLock();
+		acquireReadLock();
 		try {
 			db.Record record = tables.getTypeTable().getRecord(key);
 			if (record != null) {
@@ -87,14 +146,14 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 		} catch (IOException e) {
 			dbError(e);
 		} finally {
-			releaseLock();
+			releaseReadLock();
 		}
 		return null;
 	}
 
 	@Override
 	public final T4 getVtableRecord(long key) {
-		acquireLock();
+		acquireReadLock();
 		try {
 			db.Record record = tables.getVtableTable().getRecord(key);
 			if (record != null) {
@@ -103,7 +162,7 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 		} catch (IOException e) {
 			dbError(e);
 		} finally {
-			releaseLock();
+			releaseReadLock();
 		}
 		return null;
 	}
@@ -117,9 +176,12 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 		try {
 			handler.startTransaction("Updating Record");
 			if (record.hasSameSchema(tables.getTypeSchema())) {
+				prepareTypeRecord(record.getRecord());
 				tables.getTypeTable().putRecord(record.getRecord());
+				typeRecordChanged(record.getRecord());
 			} else if (record.hasSameSchema(tables.getVtableSchema())) {
 				tables.getVtableTable().putRecord(record.getRecord());
+				vtableRecordChanged(record.getRecord());
 			} else {
 				throw new IllegalArgumentException(
 					"Ghidra-Cpp-Class-Analyzer: unexpected record schema");
@@ -158,6 +220,11 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 		}
 		acquireLock();
 		try {
+			// another writer may have resolved it before the lock was acquired
+			key = getTypeKey(type);
+			if (key != INVALID_KEY) {
+				return getType(key);
+			}
 			handler.startTransaction();
 			key = getClassKey();
 			T3 record = createTypeRecord(key);
@@ -183,6 +250,10 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 		}
 		acquireLock();
 		try {
+			key = getVtableKey(vtable);
+			if (key != INVALID_KEY) {
+				return getVtable(key);
+			}
 			handler.startTransaction();
 			key = getVtableKey();
 			T4 record = createVtableRecord(key);
@@ -196,42 +267,302 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 		return null;
 	}
 
+	/**
+	 * Resolves all the types in a single transaction. The keys for the types which
+	 * are not yet managed are allocated as a single block and one change event
+	 * is published for all of the added types.
+	 * @param types the types to resolve
+	 * @return the equivalent managed types in the order provided
+	 */
+	public final List<T1> resolveAll(Collection<? extends ClassTypeInfo> types) {
+		List<T1> added = new ArrayList<>();
+		long first = 0;
+		int count = 0;
+		int i = 0;
+		acquireLock();
+		try {
+			handler.startTransaction("Resolving types");
+			List<ClassTypeInfo> pending = getUnresolvedTypes(types);
+			first = allocateTypeKeys(pending.size());
+			count = pending.size();
+			for (; i < count; i++) {
+				ClassTypeInfo type = pending.get(i);
+				long key = first + i;
+				if (getTypeKey(type) != INVALID_KEY) {
+					// it was resolved while resolving another type
+					tables.getTypeTable().deleteRecord(key);
+					continue;
+				}
+				T3 record = getTypeRecord(key);
+				added.add(buildType(type, record));
+			}
+			if (!added.isEmpty()) {
+				TypeInfoArchiveChangeRecord change =
+					new TypeInfoArchiveChangeRecord(ChangeType.TYPES_ADDED, added);
+				getPlugin().managerChanged(change);
+			}
+			List<T1> result = new ArrayList<>(types.size());
+			for (ClassTypeInfo type : types) {
+				result.add(getType(getTypeKey(type)));
+			}
+			return result;
+		} catch (IOException e) {
+			dbError(e);
+		} finally {
+			deleteUnusedKeys(tables.getTypeTable(), first + i, first + count);
+			handler.endTransaction();
+			releaseLock();
+		}
+		return null;
+	}
+
+	/**
+	 * Resolves all the vtables in a single transaction. The keys for the vtables
+	 * which are not yet managed are allocated as a single block.
+	 * @param vtables the vtables to resolve
+	 * @return the equivalent managed vtables in the order provided
+	 */
+	public final List<T2> resolveAllVtables(Collection<? extends Vtable> vtables) {
+		long key = 0;
+		long end = 0;
+		acquireLock();
+		try {
+			handler.startTransaction("Resolving vtables");
+			Map<Address, Vtable> pending = new LinkedHashMap<>();
+			for (Vtable vtable : vtables) {
+				if (getVtableKey(vtable) == INVALID_KEY) {
+					pending.putIfAbsent(vtable.getAddress(), vtable);
+				}
+			}
+			key = allocateVtableKeys(pending.size());
+			end = key + pending.size();
+			for (Vtable vtable : pending.values()) {
+				if (getVtableKey(vtable) != INVALID_KEY) {
+					tables.getVtableTable().deleteRecord(key++);
+					continue;
+				}
+				buildVtable(vtable, getVtableRecord(key));
+				key++;
+			}
+			List<T2> result = new ArrayList<>(vtables.size());
+			for (Vtable vtable : vtables) {
+				result.add(getVtable(getVtableKey(vtable)));
+			}
+			return result;
+		} catch (IOException e) {
+			dbError(e);
+		} finally {
+			deleteUnusedKeys(tables.getVtableTable(), key, end);
+			handler.endTransaction();
+			releaseLock();
+		}
+		return null;
+	}
+
+	/**
+	 * Deletes the preallocated records which were left empty by a failed resolution
+	 * @param table the table
+	 * @param start the first unused key (inclusive)
+	 * @param end the end of the allocated keys (exclusive)
+	 */
+	private void deleteUnusedKeys(Table table, long start, long end) {
+		if (start >= end) {
+			return;
+		}
+		try {
+			table.deleteRecords(start, end - 1);
+			adaptCaches();
+		} catch (IOException e) {
+			dbError(e);
+		}
+	}
+
+	/**
+	 * Gets the types which are not yet managed ordered such that the bases
+	 * of a type always precede it
+	 * @param types the types to resolve
+	 * @return the unresolved types
+	 */
+	private List<ClassTypeInfo> getUnresolvedTypes(Collection<? extends ClassTypeInfo> types) {
+		Map<Address, ClassTypeInfo> unresolved = new LinkedHashMap<>();
+		for (ClassTypeInfo type : types) {
+			if (getTypeKey(type) == INVALID_KEY) {
+				unresolved.putIfAbsent(type.getAddress(), type);
+			}
+		}
+		List<ClassTypeInfo> result = new ArrayList<>(unresolved.size());
+		Set<Address> visited = new HashSet<>(unresolved.size());
+		Deque<ClassTypeInfo> stack = new ArrayDeque<>();
+		for (ClassTypeInfo type : unresolved.values()) {
+			stack.push(type);
+			while (!stack.isEmpty()) {
+				ClassTypeInfo current = stack.peek();
+				if (visited.contains(current.getAddress())) {
+					stack.pop();
+					continue;
+				}
+				boolean dirty = false;
+				for (ClassTypeInfo parent : current.getParentModels()) {
+					Address address = parent.getAddress();
+					if (unresolved.containsKey(address) && !visited.contains(address)) {
+						stack.push(unresolved.get(address));
+						dirty = true;
+					}
+				}
+				if (!dirty) {
+					stack.pop();
+					visited.add(current.getAddress());
+					result.add(current);
+				}
+			}
+		}
+		return result;
+	}
+
+	private long allocateTypeKeys(int count) throws IOException {
+		long first = getClassKey();
+		for (int i = 0; i < count; i++) {
+			// the records are indexed once they have been filled in by the built types
+			T3 record = tables.getTypeSchema().getNewRecord(first + i);
+			prepareTypeRecord(record.getRecord());
+			tables.getTypeTable().putRecord(record.getRecord());
+		}
+		adaptCaches();
+		return first;
+	}
+
+	private long allocateVtableKeys(int count) throws IOException {
+		long first = getVtableKey();
+		for (int i = 0; i < count; i++) {
+			T4 record = tables.getVtableSchema().getNewRecord(first + i);
+			prepareVtableRecord(record.getRecord());
+			tables.getVtableTable().putRecord(record.getRecord());
+		}
+		adaptCaches();
+		return first;
+	}
+
 	@Override
 	public final T1 getType(long key) {
-		acquireLock();
+		acquireReadLock();
 		try {
 			T3 record = getTypeRecord(key);
 			if (record == null) {
 				return null;
 			}
 			T1 type = caches.getTypeCache().get(record.getRecord());
-			if (type == null) {
-				type = buildType(record);
+			if (type != null) {
+				return type;
 			}
-			return type;
+		} finally {
+			releaseReadLock();
+		}
+		return buildType(key);
+	}
+
+	private T1 getType(db.Record record) {
+		acquireReadLock();
+		try {
+			T1 type = caches.getTypeCache().get(record);
+			if (type != null) {
+				return type;
+			}
+		} finally {
+			releaseReadLock();
+		}
+		// the record is already held so it is not fetched again
+		acquireLock();
+		try {
+			return getOrBuildType(tables.getTypeSchema().getRecord(record));
 		} finally {
 			releaseLock();
 		}
 	}
 
+	private T1 buildType(long key) {
+		// building the type may update its record
+		acquireLock();
+		try {
+			T3 record = getTypeRecord(key);
+			if (record == null) {
+				return null;
+			}
+			return getOrBuildType(record);
+		} finally {
+			releaseLock();
+		}
+	}
+
+	// the write lock must be held
+	private T1 getOrBuildType(T3 record) {
+		T1 type = caches.getTypeCache().getUncounted(record.getRecord());
+		if (type == null) {
+			type = buildType(record);
+			caches.getTypeCache().objectBuilt(record.getKey());
+		}
+		return type;
+	}
+
 	@Override
 	public final T2 getVtable(long key) {
-		acquireLock();
+		acquireReadLock();
 		try {
 			T4 record = getVtableRecord(key);
 			if (record == null) {
 				return null;
 			}
 			T2 vtable = caches.getVtableCache().get(record.getRecord());
-			if (vtable == null) {
-				vtable = buildVtable(record);
+			if (vtable != null) {
+				return vtable;
+			}
+		} finally {
+			releaseReadLock();
+		}
+		return buildVtable(key);
+	}
+
+	private T2 getVtable(db.Record record) {
+		acquireReadLock();
+		try {
+			T2 vtable = caches.getVtableCache().get(record);
+			if (vtable != null) {
+				return vtable;
 			}
-			return vtable;
+		} finally {
+			releaseReadLock();
+		}
+		// the record is already held so it is not fetched again
+		acquireLock();
+		try {
+			return getOrBuildVtable(tables.getVtableSchema().getRecord(record));
 		} finally {
 			releaseLock();
 		}
 	}
 
+	private T2 buildVtable(long key) {
+		acquireLock();
+		try {
+			T4 record = getVtableRecord(key);
+			if (record == null) {
+				return null;
+			}
+			return getOrBuildVtable(record);
+		} finally {
+			releaseLock();
+		}
+	}
+
+	// the write lock must be held
+	private T2 getOrBuildVtable(T4 record) {
+		T2 vtable = caches.getVtableCache().getUncounted(record.getRecord());
+		if (vtable == null) {
+			vtable = buildVtable(record);
+			caches.getVtableCache().objectBuilt(record.getKey());
+		}
+		return vtable;
+	}
+
 	final long getClassKey() {
 		acquireLock();
 		try {
@@ -255,19 +586,51 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 	}
 
 	final Stream<ClassTypeInfoDB> getTypeStream(boolean reverse) {
-		long maxKey = tables.getTypeTable().getMaxKey();
-		if (reverse) {
-			return LongStream.iterate(maxKey, i -> i >= 0, i -> i - 1)
-				.mapToObj(this::getType);
-		}
-		return LongStream.iterate(0, i -> i <= maxKey, i -> i + 1)
-			.mapToObj(this::getType);
+		return getTypeStream(0, Long.MAX_VALUE, reverse);
+	}
+
+	/**
+	 * Gets a stream of the types with keys in the specified range.
+	 * The stream is a single scan of the type table and may be split for parallel use.
+	 * @param minKey the minimum key (inclusive)
+	 * @param maxKey the maximum key (inclusive)
+	 * @param reverse true to stream the types in descending key order
+	 * @return the stream of types
+	 */
+	final Stream<ClassTypeInfoDB> getTypeStream(long minKey, long maxKey, boolean reverse) {
+		RecordSpliterator<ClassTypeInfoDB> spliterator =
+			getSpliterator(tables.getTypeTable(), minKey, maxKey, reverse, this::getType);
+		return StreamSupport.stream(spliterator, false);
 	}
 
 	final Stream<T2> getVtableStream() {
-		long maxKey = tables.getVtableTable().getMaxKey();
-		return LongStream.iterate(0, i -> i <= maxKey, i -> i + 1)
-			.mapToObj(this::getVtable);
+		return getVtableStream(0, Long.MAX_VALUE, false);
+	}
+
+	/**
+	 * Gets a stream of the vtables with keys in the specified range.
+	 * The stream is a single scan of the vtable table and may be split for parallel use.
+	 * @param minKey the minimum key (inclusive)
+	 * @param maxKey the maximum key (inclusive)
+	 * @param reverse true to stream the vtables in descending key order
+	 * @return the stream of vtables
+	 */
+	final Stream<T2> getVtableStream(long minKey, long maxKey, boolean reverse) {
+		RecordSpliterator<T2> spliterator =
+			getSpliterator(tables.getVtableTable(), minKey, maxKey, reverse, this::getVtable);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	private <T> RecordSpliterator<T> getSpliterator(Table table, long minKey, long maxKey,
+			boolean reverse, Function<db.Record, T> builder) {
+		acquireReadLock();
+		try {
+			long max = Math.min(maxKey, table.getMaxKey());
+			return new RecordSpliterator<>(
+				table, minKey, max, reverse, table.getRecordCount(), builder);
+		} finally {
+			releaseReadLock();
+		}
 	}
 
 	final Iterable<ClassTypeInfoDB> getTypes() {
@@ -277,4 +640,109 @@ public abstract class AbstractRttiRecordWorker<T1 extends ClassTypeInfoDB,
 	final Iterable<ClassTypeInfoDB> getTypes(boolean reverse) {
 		return () -> getTypeStream(reverse).iterator();
 	}
+
+	/**
+	 * A {@link Spliterator} over a range of table keys which builds its objects
+	 * directly from the records returned by a {@link RecordIterator}.
+	 * <p>
+	 * The record iterator is only opened on the first advance so an unstarted
+	 * spliterator may be split into halves of its key range for parallel consumers.
+	 */
+	private final class RecordSpliterator<T> implements Spliterator<T> {
+
+		// ranges smaller than this are not worth another table cursor
+		private static final long MIN_SPLIT_RANGE = 1024;
+
+		private final Table table;
+		private final boolean reverse;
+		private final Function<db.Record, T> builder;
+		private long minKey;
+		private long maxKey;
+		private long estimate;
+		private RecordIterator iter;
+
+		RecordSpliterator(Table table, long minKey, long maxKey, boolean reverse,
+				long estimate, Function<db.Record, T> builder) {
+			this.table = table;
+			this.minKey = minKey;
+			this.maxKey = maxKey;
+			this.reverse = reverse;
+			this.estimate = maxKey >= minKey ? estimate : 0;
+			this.builder = builder;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			db.Record record = nextRecord();
+			if (record == null) {
+				return false;
+			}
+			T result = builder.apply(record);
+			if (result != null) {
+				action.accept(result);
+			}
+			return true;
+		}
+
+		private db.Record nextRecord() {
+			if (maxKey < minKey) {
+				return null;
+			}
+			acquireReadLock();
+			try {
+				if (iter == null) {
+					iter = table.iterator(minKey, maxKey, reverse ? maxKey : minKey);
+					if (reverse) {
+						// the record at the starting key may be positioned after the cursor
+						db.Record record = table.getRecord(maxKey);
+						if (record != null) {
+							return record;
+						}
+					}
+				}
+				while (reverse ? iter.hasPrevious() : iter.hasNext()) {
+					db.Record record = reverse ? iter.previous() : iter.next();
+					if (!reverse || record.getKey() < maxKey) {
+						return record;
+					}
+				}
+				maxKey = minKey - 1;
+			} catch (IOException e) {
+				dbError(e);
+				maxKey = minKey - 1;
+			} finally {
+				releaseReadLock();
+			}
+			return null;
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			if (iter != null || maxKey - minKey < MIN_SPLIT_RANGE) {
+				return null;
+			}
+			long mid = minKey + ((maxKey - minKey) >>> 1);
+			long half = estimate >>> 1;
+			estimate -= half;
+			RecordSpliterator<T> prefix;
+			if (reverse) {
+				prefix = new RecordSpliterator<>(table, mid + 1, maxKey, true, half, builder);
+				maxKey = mid;
+			} else {
+				prefix = new RecordSpliterator<>(table, minKey, mid, false, half, builder);
+				minKey = mid + 1;
+			}
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return estimate;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | DISTINCT | NONNULL;
+		}
+	}
 }
@@ -0,0 +1,183 @@
+package cppclassanalyzer.data.manager;
+
+import cppclassanalyzer.data.ClassTypeInfoManager;
+
+/**
+ * An in-memory index from encoded addresses to record keys.
+ * <p>
+ * The index is kept in two open addressing maps of primitive longs so that a lookup
+ * does not allocate or touch the database. The reverse map allows a record to be
+ * re-indexed when its address changes without scanning the index.
+ * The index is not synchronized and must be guarded by the owning manager's lock.
+ */
+final class AddressKeyIndex {
+
+	private static final long MISSING = ClassTypeInfoManager.INVALID_KEY;
+
+	private final LongLongMap byAddress;
+	private final LongLongMap byKey;
+
+	AddressKeyIndex(int expectedSize) {
+		this.byAddress = new LongLongMap(expectedSize);
+		this.byKey = new LongLongMap(expectedSize);
+	}
+
+	/**
+	 * Gets the key of the record at the encoded address
+	 * @param address the encoded address
+	 * @return the record key or {@link ClassTypeInfoManager#INVALID_KEY} if none
+	 */
+	long get(long address) {
+		return byAddress.get(address);
+	}
+
+	/**
+	 * Checks if a record is indexed at the encoded address
+	 * @param address the encoded address
+	 * @return true if a record is indexed at the address
+	 */
+	boolean containsAddress(long address) {
+		return byAddress.get(address) != MISSING;
+	}
+
+	/**
+	 * Indexes the record at the encoded address, replacing its previous address
+	 * @param address the encoded address
+	 * @param key the record key
+	 */
+	void put(long address, long key) {
+		long previous = byKey.put(key, address);
+		if (previous != MISSING && previous != address && byAddress.get(previous) == key) {
+			byAddress.remove(previous);
+		}
+		byAddress.put(address, key);
+	}
+
+	/**
+	 * Removes the record from the index
+	 * @param key the record key
+	 */
+	void remove(long key) {
+		long address = byKey.remove(key);
+		if (address != MISSING && byAddress.get(address) == key) {
+			byAddress.remove(address);
+		}
+	}
+
+	int size() {
+		return byKey.size();
+	}
+
+	/**
+	 * A linear probing hash map of primitive longs.
+	 * Removed entries are back-shifted so no tombstones are left behind.
+	 */
+	private static final class LongLongMap {
+
+		private static final float LOAD_FACTOR = 0.5f;
+
+		private long[] keys;
+		private long[] values;
+		private boolean[] used;
+		private int mask;
+		private int size;
+		private int threshold;
+
+		LongLongMap(int expectedSize) {
+			allocate(tableSizeFor((int) Math.min(Integer.MAX_VALUE >> 1,
+				Math.max(16, (long) (expectedSize / LOAD_FACTOR)))));
+		}
+
+		private static int tableSizeFor(int capacity) {
+			return Integer.highestOneBit(capacity - 1) << 1;
+		}
+
+		private void allocate(int capacity) {
+			keys = new long[capacity];
+			values = new long[capacity];
+			used = new boolean[capacity];
+			mask = capacity - 1;
+			threshold = (int) (capacity * LOAD_FACTOR);
+		}
+
+		private int index(long key) {
+			long hash = key * 0x9e3779b97f4a7c15L;
+			return (int) (hash ^ (hash >>> 32)) & mask;
+		}
+
+		long get(long key) {
+			for (int i = index(key); used[i]; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+			}
+			return MISSING;
+		}
+
+		long put(long key, long value) {
+			int i = index(key);
+			for (; used[i]; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					long previous = values[i];
+					values[i] = value;
+					return previous;
+				}
+			}
+			used[i] = true;
+			keys[i] = key;
+			values[i] = value;
+			if (++size > threshold) {
+				rehash();
+			}
+			return MISSING;
+		}
+
+		long remove(long key) {
+			int i = index(key);
+			for (; used[i]; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					long previous = values[i];
+					shiftBack(i);
+					size--;
+					return previous;
+				}
+			}
+			return MISSING;
+		}
+
+		private void shiftBack(int hole) {
+			int i = hole;
+			while (true) {
+				i = (i + 1) & mask;
+				if (!used[i]) {
+					break;
+				}
+				int home = index(keys[i]);
+				// move the entry into the hole unless its home lies cyclically after the hole
+				if (((i - home) & mask) >= ((i - hole) & mask)) {
+					keys[hole] = keys[i];
+					values[hole] = values[i];
+					hole = i;
+				}
+			}
+			used[hole] = false;
+		}
+
+		private void rehash() {
+			long[] oldKeys = keys;
+			long[] oldValues = values;
+			boolean[] oldUsed = used;
+			allocate(oldKeys.length << 1);
+			size = 0;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldUsed[i]) {
+					put(oldKeys[i], oldValues[i]);
+				}
+			}
+		}
+
+		int size() {
+			return size;
+		}
+	}
+}
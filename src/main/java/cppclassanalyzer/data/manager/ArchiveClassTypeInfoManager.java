@@ -34,6 +34,7 @@ import ghidra.util.task.TaskMonitor;
 
 import org.apache.commons.io.FilenameUtils;
 
+import cppclassanalyzer.database.SchemaMismatchException;
 import cppclassanalyzer.database.schema.ArchivedClassTypeInfoSchema;
 import cppclassanalyzer.database.schema.ArchivedGnuVtableSchema;
 import cppclassanalyzer.database.tables.ArchivedClassTypeInfoDatabaseTable;
@@ -79,6 +80,7 @@ public final class ArchiveClassTypeInfoManager extends StandAloneDataTypeManager
 		ArchivedRttiCachePair caches = new ArchivedRttiCachePair();
 		ArchivedRttiTablePair tables = new ArchivedRttiTablePair(classTable, vtableTable);
 		this.worker = new RttiRecordWorker(tables, caches);
+		worker.adaptCaches();
 		this.name = FilenameUtils.removeExtension(file.getName());
 	}
 
@@ -87,17 +89,25 @@ public final class ArchiveClassTypeInfoManager extends StandAloneDataTypeManager
 		return plugin;
 	}
 
-	private ArchivedClassTypeInfoDatabaseTable getClassTable() {
-		Table classTable = dbHandle.getTable(ArchivedClassTypeInfo.TABLE_NAME);
+	private ArchivedClassTypeInfoDatabaseTable getClassTable() throws IOException {
+		Table classTable = RttiTableUpgraders.ARCHIVED_CLASS_TABLE.open(
+			dbHandle, ArchivedClassTypeInfo.TABLE_NAME);
 		if (classTable == null) {
+			if (dbHandle.getTable(ArchivedClassTypeInfo.TABLE_NAME) != null) {
+				throw new SchemaMismatchException(ArchivedClassTypeInfoDatabaseTable.class);
+			}
 			return null;
 		}
 		return new ArchivedClassTypeInfoDatabaseTable(classTable);
 	}
 
-	private ArchivedGnuVtableDatabaseTable getVtableTable() {
-		Table vtableTable = dbHandle.getTable(ArchivedGnuVtable.TABLE_NAME);
+	private ArchivedGnuVtableDatabaseTable getVtableTable() throws IOException {
+		Table vtableTable = RttiTableUpgraders.ARCHIVED_VTABLE_TABLE.open(
+			dbHandle, ArchivedGnuVtable.TABLE_NAME);
 		if (vtableTable == null) {
+			if (dbHandle.getTable(ArchivedGnuVtable.TABLE_NAME) != null) {
+				throw new SchemaMismatchException(ArchivedGnuVtableDatabaseTable.class);
+			}
 			return null;
 		}
 		return new ArchivedGnuVtableDatabaseTable(vtableTable);
@@ -331,6 +341,16 @@ public final class ArchiveClassTypeInfoManager extends StandAloneDataTypeManager
 			lock.release();
 		}
 
+		@Override
+		void acquireReadLock() {
+			acquireLock();
+		}
+
+		@Override
+		void releaseReadLock() {
+			releaseLock();
+		}
+
 		@Override
 		ClassTypeInfoManagerPlugin getPlugin() {
 			return plugin;
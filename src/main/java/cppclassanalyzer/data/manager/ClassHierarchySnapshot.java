@@ -0,0 +1,354 @@
+package cppclassanalyzer.data.manager;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import ghidra.util.datastruct.IntArrayList;
+
+import cppclassanalyzer.data.ClassTypeInfoManager;
+import cppclassanalyzer.data.typeinfo.AbstractClassTypeInfoDB;
+import cppclassanalyzer.database.record.ClassTypeInfoRecord;
+import cppclassanalyzer.database.schema.fields.ClassTypeInfoSchemaFields;
+
+import db.RecordIterator;
+
+/**
+ * An immutable snapshot of the class hierarchy of a {@link ClassTypeInfoManagerDB}.
+ * <p>
+ * The types are identified by their index in the snapshot which is the position of
+ * their key in ascending key order. The parent and derived edges are stored in
+ * compressed sparse row form so that the edges of the type at index {@code i} are
+ * the entries from {@code start[i]} up to {@code start[i + 1]}. A snapshot is never
+ * modified after it has been built and may be queried from any thread without locking.
+ * It reflects the manager as of {@link #getModificationCount()}.
+ */
+public final class ClassHierarchySnapshot {
+
+	/** The offset of a base whose offset is not yet known */
+	public static final int UNKNOWN_OFFSET = Integer.MIN_VALUE;
+
+	private static final int[] NO_OFFSETS = new int[0];
+
+	private final long modificationCount;
+	private final long[] keys;
+	private final long[] vtableKeys;
+	private final int[] depths;
+	private final int[] parentStart;
+	private final int[] parents;
+	private final int[] parentOffsets;
+	private final boolean[] virtualParents;
+	private final int[] derivedStart;
+	private final int[] derived;
+
+	private ClassHierarchySnapshot(long modificationCount, long[] keys, long[] vtableKeys,
+			int[] depths, int[] parentStart, int[] parents, int[] parentOffsets,
+			boolean[] virtualParents) {
+		this.modificationCount = modificationCount;
+		this.keys = keys;
+		this.vtableKeys = vtableKeys;
+		this.depths = depths;
+		this.parentStart = parentStart;
+		this.parents = parents;
+		this.parentOffsets = parentOffsets;
+		this.virtualParents = virtualParents;
+		this.derivedStart = new int[keys.length + 1];
+		this.derived = new int[parents.length];
+		fillDerived();
+	}
+
+	private void fillDerived() {
+		for (int parent : parents) {
+			derivedStart[parent + 1]++;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			derivedStart[i + 1] += derivedStart[i];
+		}
+		int[] next = Arrays.copyOf(derivedStart, keys.length);
+		for (int i = 0; i < keys.length; i++) {
+			for (int j = parentStart[i]; j < parentStart[i + 1]; j++) {
+				derived[next[parents[j]]++] = i;
+			}
+		}
+	}
+
+	/**
+	 * Builds a snapshot from the records of the type table.
+	 * The caller must hold the manager's lock for the duration of the build.
+	 * @param iter an iterator over the type table in ascending key order
+	 * @param count the number of records in the type table
+	 * @param modificationCount the manager's current modification count
+	 * @return the snapshot
+	 * @throws IOException if an error occurs reading the table
+	 */
+	static ClassHierarchySnapshot build(RecordIterator iter, int count, long modificationCount)
+			throws IOException {
+		long[] keys = new long[count];
+		long[] vtableKeys = new long[count];
+		int[] depths = new int[count];
+		long[][] baseKeys = new long[count][];
+		int[][] baseOffsets = new int[count][];
+		long[][] virtualKeys = new long[count][];
+		int size = 0;
+		int edges = 0;
+		while (iter.hasNext()) {
+			ClassTypeInfoRecord record = new ClassTypeInfoRecord(iter.next());
+			if (size == keys.length) {
+				int length = Math.max(16, size << 1);
+				keys = Arrays.copyOf(keys, length);
+				vtableKeys = Arrays.copyOf(vtableKeys, length);
+				depths = Arrays.copyOf(depths, length);
+				baseKeys = Arrays.copyOf(baseKeys, length);
+				baseOffsets = Arrays.copyOf(baseOffsets, length);
+				virtualKeys = Arrays.copyOf(virtualKeys, length);
+			}
+			keys[size] = record.getKey();
+			vtableKeys[size] = record.getLongValue(ClassTypeInfoSchemaFields.VTABLE_KEY);
+			depths[size] = record.getIntValue(ClassTypeInfoSchemaFields.RANK);
+			if (record.getBinaryData(ClassTypeInfoSchemaFields.MODEL_DATA) != null) {
+				baseKeys[size] = AbstractClassTypeInfoDB.getBaseKeys(record);
+				baseOffsets[size] = AbstractClassTypeInfoDB.getBaseOffsets(record);
+				virtualKeys[size] = AbstractClassTypeInfoDB.getVirtualBaseKeys(record);
+				edges += baseKeys[size].length;
+			}
+			size++;
+		}
+		keys = Arrays.copyOf(keys, size);
+		vtableKeys = Arrays.copyOf(vtableKeys, size);
+		depths = Arrays.copyOf(depths, size);
+		int[] parentStart = new int[size + 1];
+		int[] parents = new int[edges];
+		int[] parentOffsets = new int[edges];
+		boolean[] virtualParents = new boolean[edges];
+		int edge = 0;
+		for (int i = 0; i < size; i++) {
+			parentStart[i] = edge;
+			if (baseKeys[i] == null) {
+				continue;
+			}
+			int[] offsets = baseOffsets[i] != null ? baseOffsets[i] : NO_OFFSETS;
+			for (int j = 0; j < baseKeys[i].length; j++) {
+				int parent = Arrays.binarySearch(keys, baseKeys[i][j]);
+				if (parent < 0) {
+					// the base has been removed from the manager
+					continue;
+				}
+				parents[edge] = parent;
+				parentOffsets[edge] = j < offsets.length ? offsets[j] : UNKNOWN_OFFSET;
+				virtualParents[edge] = contains(virtualKeys[i], baseKeys[i][j]);
+				edge++;
+			}
+		}
+		parentStart[size] = edge;
+		return new ClassHierarchySnapshot(modificationCount, keys, vtableKeys, depths,
+			parentStart, Arrays.copyOf(parents, edge), Arrays.copyOf(parentOffsets, edge),
+			Arrays.copyOf(virtualParents, edge));
+	}
+
+	private static boolean contains(long[] values, long value) {
+		if (values != null) {
+			for (long v : values) {
+				if (v == value) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the manager modification count this snapshot was built at
+	 * @return the modification count
+	 */
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Gets the number of types in the snapshot
+	 * @return the number of types
+	 */
+	public int size() {
+		return keys.length;
+	}
+
+	/**
+	 * Gets the index of the type with the specified key
+	 * @param key the type key
+	 * @return the type's index or -1 if the type is not in the snapshot
+	 */
+	public int indexOf(long key) {
+		int index = Arrays.binarySearch(keys, key);
+		return index >= 0 ? index : -1;
+	}
+
+	/**
+	 * Gets the key of the type at the specified index
+	 * @param index the type index
+	 * @return the type key
+	 */
+	public long getKey(int index) {
+		return keys[index];
+	}
+
+	/**
+	 * Gets the key of the vtable for the type at the specified index
+	 * @param index the type index
+	 * @return the vtable key or {@link ClassTypeInfoManager#INVALID_KEY} if none
+	 */
+	public long getVtableKey(int index) {
+		return vtableKeys[index];
+	}
+
+	/**
+	 * Gets the depth of the type at the specified index in the hierarchy.
+	 * A type without any bases has a depth of 0 and all other types are one
+	 * deeper than their deepest base.
+	 * @param index the type index
+	 * @return the type's depth
+	 */
+	public int getDepth(int index) {
+		return depths[index];
+	}
+
+	/**
+	 * Gets the number of direct bases of the type at the specified index
+	 * @param index the type index
+	 * @return the number of parents
+	 */
+	public int getParentCount(int index) {
+		return parentStart[index + 1] - parentStart[index];
+	}
+
+	/**
+	 * Gets the index of a direct base of the type at the specified index
+	 * @param index the type index
+	 * @param n the ordinal of the parent in {@code [0, getParentCount(index))}
+	 * @return the parent's index
+	 */
+	public int getParent(int index, int n) {
+		return parents[getParentEdge(index, n)];
+	}
+
+	/**
+	 * Gets the offset of a direct base within the type at the specified index
+	 * @param index the type index
+	 * @param n the ordinal of the parent in {@code [0, getParentCount(index))}
+	 * @return the parent's offset or {@link #UNKNOWN_OFFSET}
+	 */
+	public int getParentOffset(int index, int n) {
+		return parentOffsets[getParentEdge(index, n)];
+	}
+
+	/**
+	 * Checks if a direct base of the type at the specified index is inherited virtually.
+	 * The virtual inheritance is only recorded for GNU types.
+	 * @param index the type index
+	 * @param n the ordinal of the parent in {@code [0, getParentCount(index))}
+	 * @return true if the parent is a virtual base
+	 */
+	public boolean isVirtualParent(int index, int n) {
+		return virtualParents[getParentEdge(index, n)];
+	}
+
+	private int getParentEdge(int index, int n) {
+		if (n < 0 || n >= getParentCount(index)) {
+			throw new IndexOutOfBoundsException(n);
+		}
+		return parentStart[index] + n;
+	}
+
+	/**
+	 * Gets the number of types directly derived from the type at the specified index
+	 * @param index the type index
+	 * @return the number of derived types
+	 */
+	public int getDerivedCount(int index) {
+		return derivedStart[index + 1] - derivedStart[index];
+	}
+
+	/**
+	 * Gets the index of a type directly derived from the type at the specified index
+	 * @param index the type index
+	 * @param n the ordinal of the derived type in {@code [0, getDerivedCount(index))}
+	 * @return the derived type's index
+	 */
+	public int getDerived(int index, int n) {
+		if (n < 0 || n >= getDerivedCount(index)) {
+			throw new IndexOutOfBoundsException(n);
+		}
+		return derived[derivedStart[index] + n];
+	}
+
+	/**
+	 * Gets the keys of the direct bases of the type with the specified key
+	 * @param key the type key
+	 * @return the parent keys or an empty array if the type is not in the snapshot
+	 */
+	public long[] getParentKeys(long key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return new long[0];
+		}
+		return toKeys(parents, parentStart[index], parentStart[index + 1]);
+	}
+
+	/**
+	 * Gets the keys of the types directly derived from the type with the specified key
+	 * @param key the type key
+	 * @return the derived keys or an empty array if the type is not in the snapshot
+	 */
+	public long[] getDerivedKeys(long key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return new long[0];
+		}
+		return toKeys(derived, derivedStart[index], derivedStart[index + 1]);
+	}
+
+	/**
+	 * Checks if the type with the specified key inherits, directly or indirectly,
+	 * from the type with the specified base key
+	 * @param key the type key
+	 * @param baseKey the base type key
+	 * @return true if the type is derived from the base
+	 */
+	public boolean isDerivedFrom(long key, long baseKey) {
+		int index = indexOf(key);
+		int base = indexOf(baseKey);
+		if (index < 0 || base < 0) {
+			return false;
+		}
+		int baseDepth = depths[base];
+		if (depths[index] <= baseDepth) {
+			// a base always has a lower depth than the types derived from it
+			return false;
+		}
+		Set<Integer> visited = new HashSet<>();
+		IntArrayList stack = new IntArrayList();
+		stack.add(index);
+		while (stack.size() > 0) {
+			int current = stack.removeValueAt(stack.size() - 1);
+			for (int i = parentStart[current]; i < parentStart[current + 1]; i++) {
+				int parent = parents[i];
+				if (parent == base) {
+					return true;
+				}
+				// only the ancestors above the base's depth may lead to it
+				if (depths[parent] > baseDepth && visited.add(parent)) {
+					stack.add(parent);
+				}
+			}
+		}
+		return false;
+	}
+
+	private long[] toKeys(int[] indices, int start, int end) {
+		long[] result = new long[end - start];
+		for (int i = start; i < end; i++) {
+			result[i - start] = keys[indices[i]];
+		}
+		return result;
+	}
+}
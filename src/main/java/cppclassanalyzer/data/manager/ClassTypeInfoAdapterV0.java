@@ -0,0 +1,98 @@
+package cppclassanalyzer.data.manager;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import ghidra.util.datastruct.LongIntHashtable;
+import ghidra.util.exception.AssertException;
+import ghidra.util.exception.NoValueException;
+
+import cppclassanalyzer.data.typeinfo.AbstractClassTypeInfoDB;
+import cppclassanalyzer.database.record.ClassTypeInfoRecord;
+import cppclassanalyzer.database.schema.fields.ClassTypeInfoSchemaFields;
+import cppclassanalyzer.database.utils.LongStack;
+
+import db.RecordIterator;
+import db.Table;
+
+/**
+ * Reads the class table records written before the types were ranked.
+ * The ranks are computed once all the records have been translated.
+ */
+final class ClassTypeInfoAdapterV0 extends ClassTypeInfoAdapterV1 {
+
+	private static final long[] NO_KEYS = new long[0];
+
+	ClassTypeInfoAdapterV0() {
+		super(0, ClassTypeInfoSchemaFields.RANK.ordinal());
+	}
+
+	@Override
+	public void complete(Table table) throws IOException {
+		Map<Long, long[]> bases = new HashMap<>(table.getRecordCount());
+		RecordIterator iter = table.iterator();
+		while (iter.hasNext()) {
+			ClassTypeInfoRecord record = new ClassTypeInfoRecord(iter.next());
+			long[] baseKeys = NO_KEYS;
+			if (record.getBinaryData(ClassTypeInfoSchemaFields.MODEL_DATA) != null) {
+				baseKeys = AbstractClassTypeInfoDB.getBaseKeys(record);
+			}
+			bases.put(record.getKey(), baseKeys);
+		}
+		LongIntHashtable ranks = getRanks(bases);
+		for (long key : ranks.getKeys()) {
+			int rank = getRank(ranks, key);
+			if (rank == 0) {
+				// the default value
+				continue;
+			}
+			ClassTypeInfoRecord record = new ClassTypeInfoRecord(table.getRecord(key));
+			record.setIntValue(ClassTypeInfoSchemaFields.RANK, rank);
+			table.putRecord(record.getRecord());
+		}
+	}
+
+	private static LongIntHashtable getRanks(Map<Long, long[]> bases) {
+		LongIntHashtable ranks = new LongIntHashtable(bases.size());
+		LongStack stack = new LongStack();
+		for (long key : bases.keySet()) {
+			stack.push(key);
+			while (!stack.isEmpty()) {
+				long current = stack.pop();
+				if (ranks.contains(current)) {
+					continue;
+				}
+				int rank = 0;
+				boolean dirty = false;
+				for (long base : bases.get(current)) {
+					if (!bases.containsKey(base)) {
+						continue;
+					}
+					if (!ranks.contains(base)) {
+						if (!dirty) {
+							stack.push(current);
+						}
+						dirty = true;
+						stack.push(base);
+					} else if (!dirty) {
+						rank = Math.max(rank, getRank(ranks, base) + 1);
+					}
+				}
+				if (!dirty) {
+					ranks.put(current, rank);
+				}
+			}
+		}
+		return ranks;
+	}
+
+	private static int getRank(LongIntHashtable ranks, long key) {
+		try {
+			return ranks.get(key);
+		} catch (NoValueException e) {
+			// impossible. this should not be a checked exception!
+			throw new AssertException(e);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package cppclassanalyzer.data.manager;
+
+import cppclassanalyzer.data.typeinfo.AbstractClassTypeInfoDB;
+import cppclassanalyzer.database.record.ClassTypeInfoRecord;
+import cppclassanalyzer.database.schema.ClassTypeInfoSchema;
+import cppclassanalyzer.database.schema.fields.ClassTypeInfoSchemaFields;
+import cppclassanalyzer.database.upgrade.TableAdapter;
+
+/**
+ * Reads the class table records written before the model data was stored as varints
+ */
+class ClassTypeInfoAdapterV1 extends TableAdapter {
+
+	ClassTypeInfoAdapterV1() {
+		this(1, ClassTypeInfoSchemaFields.values().length);
+	}
+
+	protected ClassTypeInfoAdapterV1(int version, int fieldCount) {
+		super(version, fieldCount);
+	}
+
+	@Override
+	public db.Record translate(db.Record oldRecord) {
+		ClassTypeInfoRecord record =
+			new ClassTypeInfoRecord(copyRecord(ClassTypeInfoSchema.SCHEMA, oldRecord));
+		AbstractClassTypeInfoDB.upgradeRecord(record);
+		return record.getRecord();
+	}
+}
@@ -4,24 +4,31 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
-import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.swing.Icon;
 
 import ghidra.app.cmd.data.TypeDescriptorModel;
 import ghidra.app.cmd.data.rtti.*;
 import ghidra.app.cmd.data.rtti.gcc.GnuUtils;
+import ghidra.app.cmd.data.rtti.gcc.VtableUtils;
+import ghidra.app.cmd.data.rtti.gcc.VttModel;
 import ghidra.app.plugin.prototype.MicrosoftCodeAnalyzerPlugin.PEUtil;
 import cppclassanalyzer.plugin.typemgr.node.TypeInfoTreeNodeManager;
 import cppclassanalyzer.vs.RttiModelWrapper;
 import cppclassanalyzer.vs.VsClassTypeInfo;
 import cppclassanalyzer.vs.VsVtableModel;
 
+import ghidra.framework.model.DomainObject;
+import ghidra.framework.model.DomainObjectChangedEvent;
+import ghidra.framework.model.DomainObjectListener;
 import ghidra.program.database.ManagerDB;
 import ghidra.program.database.ProgramDB;
 import cppclassanalyzer.data.ProgramClassTypeInfoManager;
 import cppclassanalyzer.data.manager.caches.ProgramRttiCachePair;
+import cppclassanalyzer.data.manager.caches.RttiCachePair;
+import cppclassanalyzer.data.manager.caches.RttiObjectCache;
 import cppclassanalyzer.data.manager.recordmanagers.ProgramRttiRecordManager;
 import cppclassanalyzer.data.manager.tables.ProgramRttiTablePair;
 import cppclassanalyzer.data.typeinfo.*;
@@ -29,15 +36,15 @@ import cppclassanalyzer.data.vtable.*;
 import ghidra.program.database.map.AddressMap;
 import ghidra.program.model.address.Address;
 import ghidra.program.model.address.AddressOverflowException;
+import ghidra.program.model.address.AddressSetView;
+import ghidra.program.model.address.KeyRange;
 import ghidra.program.model.data.*;
 import ghidra.program.model.listing.*;
 import ghidra.program.model.symbol.*;
-import ghidra.util.Lock;
+import ghidra.program.util.ChangeManager;
 import ghidra.util.Msg;
 import ghidra.util.UniversalID;
 import ghidra.util.datastruct.LongArrayList;
-import ghidra.util.datastruct.LongIntHashtable;
-import ghidra.util.datastruct.RedBlackLongKeySet;
 import ghidra.util.exception.*;
 import ghidra.util.task.CancelOnlyWrappingTaskMonitor;
 import ghidra.util.task.TaskMonitor;
@@ -45,18 +52,26 @@ import ghidra.util.task.TaskMonitor;
 import cppclassanalyzer.database.record.ClassTypeInfoRecord;
 import cppclassanalyzer.database.record.SchemaRecordIterator;
 import cppclassanalyzer.database.record.VtableRecord;
+import cppclassanalyzer.database.record.VttRecord;
 import cppclassanalyzer.database.schema.ClassTypeInfoSchema;
+import cppclassanalyzer.database.schema.DerivedTypeSchema;
 import cppclassanalyzer.database.schema.VtableSchema;
+import cppclassanalyzer.database.schema.VttSchema;
 import cppclassanalyzer.database.schema.fields.ClassTypeInfoSchemaFields;
 import cppclassanalyzer.database.schema.fields.VtableSchemaFields;
+import cppclassanalyzer.database.schema.fields.VttSchemaFields;
 import cppclassanalyzer.database.tables.ClassTypeInfoDatabaseTable;
+import cppclassanalyzer.database.tables.DerivedTypeDatabaseTable;
 import cppclassanalyzer.database.tables.VtableDatabaseTable;
-import cppclassanalyzer.database.utils.LongStack;
+import cppclassanalyzer.database.tables.VttDatabaseTable;
 import cppclassanalyzer.database.utils.TransactionHandler;
+import cppclassanalyzer.utils.DataReferenceIndex;
 import cppclassanalyzer.plugin.ClassTypeInfoManagerPlugin;
 import cppclassanalyzer.plugin.TypeInfoArchiveChangeRecord;
 import cppclassanalyzer.plugin.TypeInfoArchiveChangeRecord.ChangeType;
 import db.DBHandle;
+import db.DBLongIterator;
+import db.IntField;
 import db.LongField;
 import db.RecordIterator;
 import db.Table;
@@ -71,28 +86,39 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 	};
 
 	private final ClassTypeInfoManagerPlugin plugin;
-	private final Lock lock;
+	private final RttiReadWriteLock lock;
 	private ProgramDB program;
 	private final AddressMap map;
 	private final RttiRecordWorker worker;
 	private final TypeInfoTreeNodeManager treeNodeManager;
+	private final VttDatabaseTable vttTable;
+	private final DerivedTypeIndex derivedTypes;
+
+	// address to key indexes of the type and vtable tables which are loaded when first used
+	private volatile AddressKeyIndex typeIndex;
+	private volatile AddressKeyIndex vtableIndex;
+	private final AtomicLong modificationCount = new AtomicLong();
+	private final AtomicLong functionModificationCount = new AtomicLong();
+	private volatile ClassHierarchySnapshot hierarchy;
 
 	public ClassTypeInfoManagerDB(ClassTypeInfoManagerPlugin plugin, ProgramDB program) {
 		this.plugin = plugin;
 		this.program = program;
 		this.map = program.getAddressMap();
 		DBHandle handle = program.getDBHandle();
-		lock = new Lock(getClass().getSimpleName());
+		lock = new RttiReadWriteLock();
 		this.treeNodeManager = new TypeInfoTreeNodeManager(this, handle);
 		ClassTypeInfoDatabaseTable classTable = getClassTable(handle);
 		VtableDatabaseTable vtableTable = getVtableTable(handle);
-		if (shouldResetDatabase(classTable, vtableTable)) {
+		boolean reset = shouldResetDatabase(classTable, vtableTable);
+		if (reset) {
 			try {
 				long id = handle.isTransactionActive() ? -1 : handle.startTransaction();
-				if (classTable != null) {
+				// a table with an unknown schema is not opened but must still be replaced
+				if (handle.getTable(AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME) != null) {
 					handle.deleteTable(AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME);
 				}
-				if (vtableTable != null) {
+				if (handle.getTable(AbstractVtableDB.VTABLE_TABLE_NAME) != null) {
 					handle.deleteTable(AbstractVtableDB.VTABLE_TABLE_NAME);
 				}
 				classTable = getNewClassTable(handle);
@@ -104,25 +130,86 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 				dbError(e);
 			}
 		}
+		this.vttTable = getVttTable(handle, reset);
+		this.derivedTypes = getDerivedTypeIndex(handle, reset, classTable);
 		ProgramRttiCachePair caches = new ProgramRttiCachePair();
 		ProgramRttiTablePair tables = new ProgramRttiTablePair(classTable, vtableTable);
 		this.worker = doGetWorker(tables, caches);
+		int capacity =
+			plugin != null ? plugin.getCacheCapacity() : RttiCachePair.ADAPTIVE_CAPACITY;
+		setCacheCapacity(capacity);
+		program.addListener(new ProgramChangeListener());
 	}
 
 	private ClassTypeInfoDatabaseTable getClassTable(DBHandle handle) {
-		Table classTable = handle.getTable(AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME);
-		if (classTable != null) {
-			return new ClassTypeInfoDatabaseTable(classTable);
+		try {
+			Table classTable = RttiTableUpgraders.CLASS_TABLE.open(
+				handle, AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME);
+			return classTable != null ? new ClassTypeInfoDatabaseTable(classTable) : null;
+		} catch (IOException e) {
+			dbError(e);
+			return null;
 		}
-		return null;
 	}
 
 	private VtableDatabaseTable getVtableTable(DBHandle handle) {
-		Table vtableTable = handle.getTable(AbstractVtableDB.VTABLE_TABLE_NAME);
-		if (vtableTable != null) {
-			return new VtableDatabaseTable(vtableTable);
+		try {
+			Table vtableTable =
+				RttiTableUpgraders.VTABLE_TABLE.open(handle, AbstractVtableDB.VTABLE_TABLE_NAME);
+			return vtableTable != null ? new VtableDatabaseTable(vtableTable) : null;
+		} catch (IOException e) {
+			dbError(e);
+			return null;
+		}
+	}
+
+	private VttDatabaseTable getVttTable(DBHandle handle, boolean reset) {
+		Table table = handle.getTable(VttDatabaseTable.TABLE_NAME);
+		if (table != null && !reset && VttSchema.SCHEMA.equals(table.getSchema())) {
+			return new VttDatabaseTable(table);
+		}
+		// the VTTs are keyed by class key and can always be located again
+		try {
+			long id = handle.isTransactionActive() ? -1 : handle.startTransaction();
+			if (table != null) {
+				handle.deleteTable(VttDatabaseTable.TABLE_NAME);
+			}
+			table = handle.createTable(
+				VttDatabaseTable.TABLE_NAME, VttSchema.SCHEMA, VttSchema.INDEXED_COLUMNS);
+			if (id != -1) {
+				handle.endTransaction(id, true);
+			}
+			return new VttDatabaseTable(table);
+		} catch (IOException e) {
+			dbError(e);
+			return null;
+		}
+	}
+
+	private DerivedTypeIndex getDerivedTypeIndex(DBHandle handle, boolean reset,
+			ClassTypeInfoDatabaseTable classTable) {
+		Table table = handle.getTable(DerivedTypeDatabaseTable.TABLE_NAME);
+		if (table != null && !reset && DerivedTypeSchema.SCHEMA.equals(table.getSchema())) {
+			return new DerivedTypeIndex(new DerivedTypeDatabaseTable(table));
+		}
+		// the edges are derived from the type records and can always be rebuilt
+		try {
+			long id = handle.isTransactionActive() ? -1 : handle.startTransaction();
+			if (table != null) {
+				handle.deleteTable(DerivedTypeDatabaseTable.TABLE_NAME);
+			}
+			table = handle.createTable(DerivedTypeDatabaseTable.TABLE_NAME,
+				DerivedTypeSchema.SCHEMA, DerivedTypeSchema.INDEXED_COLUMNS);
+			DerivedTypeIndex index = new DerivedTypeIndex(new DerivedTypeDatabaseTable(table));
+			index.fill(classTable.getTable());
+			if (id != -1) {
+				handle.endTransaction(id, true);
+			}
+			return index;
+		} catch (IOException e) {
+			dbError(e);
+			return null;
 		}
-		return null;
 	}
 
 	private static boolean shouldResetDatabase(ClassTypeInfoDatabaseTable classTable,
@@ -162,17 +249,25 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 		return new VtableDatabaseTable(vtableTable);
 	}
 
+	/**
+	 * Runs the supplier while holding the lock without waiting for it.
+	 * <p>
+	 * The supplier may resolve new types which requires the write lock and a read
+	 * lock cannot be upgraded, so the exclusive lock is taken for the whole call.
+	 * @param <T> the result type
+	 * @param supplier the supplier to run
+	 * @param defaultResult the result if another thread holds the lock
+	 * @return the supplier's result or the default result
+	 */
 	public <T> T lockAndRun(Supplier<T> supplier, T defaultResult) {
-		Thread lockOwner = lock.getOwner();
-		if (lockOwner == null || lockOwner == Thread.currentThread()) {
-			lock.acquire();
-			try {
-				return supplier.get();
-			} finally {
-				lock.release();
-			}
+		if (!lock.tryAcquire()) {
+			return defaultResult;
+		}
+		try {
+			return supplier.get();
+		} finally {
+			lock.release();
 		}
-		return defaultResult;
 	}
 
 	@Override
@@ -186,50 +281,80 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 	}
 
 	public long getTypeKey(Address address) {
-		lock.acquire();
+		lock.acquireRead();
 		try {
-			long addrKey = encodeAddress(address);
-			long[] keys = worker.getTables()
-				.getTypeTable()
-				.findRecords(
-					new LongField(addrKey),
-					ClassTypeInfoSchemaFields.ADDRESS.ordinal());
-			if (keys.length == 1) {
-				return keys[0];
-			}
-			if (keys.length > 1) {
-				throw new AssertException(
-					"Ghidra-Cpp-Class-Analyzer: duplicate ClassTypeInfo detected");
-			}
-		} catch (IOException e) {
-			dbError(e);
+			return getTypeIndex().get(encodeAddress(address));
 		} finally {
-			lock.release();
+			lock.releaseRead();
 		}
-		return INVALID_KEY;
 	}
 
 	public long getVtableKey(Address address) {
-		lock.acquire();
+		lock.acquireRead();
 		try {
-			long addrKey = encodeAddress(address);
-			long[] keys = worker.getTables()
-				.getVtableTable()
-				.findRecords(
-					new LongField(addrKey), VtableSchemaFields.ADDRESS.ordinal());
-			if (keys.length == 1) {
-				return keys[0];
+			return getVtableIndex().get(encodeAddress(address));
+		} finally {
+			lock.releaseRead();
+		}
+	}
+
+	private AddressKeyIndex getTypeIndex() {
+		AddressKeyIndex index = typeIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = typeIndex;
+				if (index == null) {
+					index = loadIndex(worker.getTables().getTypeTable(),
+						ClassTypeInfoSchemaFields.ADDRESS.ordinal(), "ClassTypeInfo");
+					typeIndex = index;
+				}
 			}
-			if (keys.length > 1) {
-				throw new AssertException(
-					"Ghidra-Cpp-Class-Analyzer: duplicate Vtable detected");
+		}
+		return index;
+	}
+
+	private AddressKeyIndex getVtableIndex() {
+		AddressKeyIndex index = vtableIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = vtableIndex;
+				if (index == null) {
+					index = loadIndex(worker.getTables().getVtableTable(),
+						VtableSchemaFields.ADDRESS.ordinal(), "Vtable");
+					vtableIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	private AddressKeyIndex loadIndex(Table table, int column, String name) {
+		AddressKeyIndex index = new AddressKeyIndex(table.getRecordCount());
+		try {
+			RecordIterator iter = table.iterator();
+			while (iter.hasNext()) {
+				db.Record record = iter.next();
+				long address = record.getLongValue(column);
+				if (index.containsAddress(address)) {
+					throw new AssertException(
+						"Ghidra-Cpp-Class-Analyzer: duplicate " + name + " detected");
+				}
+				index.put(address, record.getKey());
 			}
 		} catch (IOException e) {
 			dbError(e);
-		} finally {
-			lock.release();
 		}
-		return INVALID_KEY;
+		return index;
+	}
+
+	private void discardIndexes() {
+		typeIndex = null;
+		vtableIndex = null;
+	}
+
+	private AddressKeyIndex[] getLoadedIndexes() {
+		// the VTT table is keyed by class key and is not indexed
+		return new AddressKeyIndex[] { typeIndex, vtableIndex, null };
 	}
 
 	public Address decodeAddress(long offset) {
@@ -240,33 +365,31 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 		return map.getKey(address, true);
 	}
 
+	/**
+	 * Gets the encoded key for the address without creating a new key
+	 * @param address the address
+	 * @return the address key or {@link AddressMap#INVALID_ADDRESS_KEY} if there is none
+	 */
+	public long getAddressKey(Address address) {
+		return map.getKey(address, false);
+	}
+
 	private boolean containsClassKey(Address address) {
-		lock.acquire();
-		try {
-			long key = getTypeKey(address);
-			if (key != INVALID_KEY) {
-				return worker.getTables().getTypeTable().hasRecord(key);
-			}
-		} catch (IOException e) {
-			dbError(e);
-		} finally {
-			lock.release();
-		}
-		return false;
+		return getTypeKey(address) != INVALID_KEY;
 	}
 
 	boolean hasVtable(long key) {
 		if (key == 0) {
 			return false;
 		}
-		lock.acquire();
+		lock.acquireRead();
 		try {
 			return worker.getTables().getVtableTable().hasRecord(key);
 		} catch (IOException e) {
 			dbError(e);
 			return false;
 		} finally {
-			lock.release();
+			lock.releaseRead();
 		}
 	}
 
@@ -303,40 +426,43 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 		lock.acquire();
 		try {
 			worker.getCaches().invalidate();
+			discardIndexes();
+			setChanged();
 		} finally {
 			lock.release();
 		}
 	}
 
-	private LongArrayList getTypeKeys(Address startAddr, Address endAddr, TaskMonitor monitor)
-			throws CancelledException {
-		return getRangedKeys(startAddr, endAddr, this::getTypeKey, monitor);
+	private LongArrayList getRangedKeys(Table table, int column, Address startAddr,
+			Address endAddr, TaskMonitor monitor) throws IOException, CancelledException {
+		// the encoded addresses are only ordered within each key range
+		LongArrayList keys = new LongArrayList();
+		for (KeyRange range : map.getKeyRanges(startAddr, endAddr, false)) {
+			DBLongIterator iter = table.indexKeyIterator(
+				column, new LongField(range.minKey), new LongField(range.maxKey), true);
+			while (iter.hasNext()) {
+				monitor.checkCanceled();
+				keys.add(iter.next());
+			}
+		}
+		return keys;
 	}
 
-	private LongArrayList getVtableKeys(Address startAddr, Address endAddr, TaskMonitor monitor)
-			throws CancelledException {
-		return getRangedKeys(startAddr, endAddr, this::getVtableKey, monitor);
+	private Table[] getAddressTables() {
+		ProgramRttiTablePair tables = worker.getTables();
+		return new Table[] {
+			tables.getTypeTable(),
+			tables.getVtableTable(),
+			vttTable.getTable()
+		};
 	}
 
-	private LongArrayList getRangedKeys(Address startAddr, Address endAddr,
-			ToLongFunction<Address> keyFinder, TaskMonitor monitor)
-			throws CancelledException {
-		lock.acquire();
-		try {
-			LongArrayList keys = new LongArrayList();
-			Address currentAddress = startAddr;
-			while (currentAddress.compareTo(endAddr) < 0) {
-				monitor.checkCanceled();
-				long key = keyFinder.applyAsLong(currentAddress);
-				if (key != INVALID_KEY) {
-					keys.add(key);
-				}
-				currentAddress.add(currentAddress.getPointerSize());
-			}
-			return keys;
-		} finally {
-			lock.release();
-		}
+	private static int[] getAddressColumns() {
+		return new int[] {
+			ClassTypeInfoSchemaFields.ADDRESS.ordinal(),
+			VtableSchemaFields.ADDRESS.ordinal(),
+			VttSchemaFields.ADDRESS.ordinal()
+		};
 	}
 
 	@Override
@@ -344,16 +470,41 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 			throws CancelledException {
 		lock.acquire();
 		try {
-			Table table = worker.getTables().getTypeTable();
-			for (long key : getTypeKeys(startAddr, endAddr, monitor)) {
-				monitor.checkCanceled();
-				table.deleteRecord(key);
+			Table[] tables = getAddressTables();
+			int[] columns = getAddressColumns();
+			LongArrayList[] keys = new LongArrayList[tables.length];
+			for (int i = 0; i < tables.length; i++) {
+				keys[i] = getRangedKeys(tables[i], columns[i], startAddr, endAddr, monitor);
+			}
+			AddressKeyIndex[] indexes = getLoadedIndexes();
+			for (int i = 0; i < tables.length; i++) {
+				for (int j = 0; j < keys[i].size(); j++) {
+					monitor.checkCanceled();
+					long key = keys[i].get(j);
+					tables[i].deleteRecord(key);
+					if (indexes[i] != null) {
+						indexes[i].remove(key);
+					}
+				}
 			}
-			table = worker.getTables().getVtableTable();
-			for (long key : getVtableKeys(startAddr, endAddr, monitor)) {
+			// the type table is the first of the address tables
+			Table vtts = vttTable.getTable();
+			for (int i = 0; i < keys[0].size(); i++) {
 				monitor.checkCanceled();
-				table.deleteRecord(key);
+				long key = keys[0].get(i);
+				derivedTypes.remove(key);
+				vtts.deleteRecord(key);
+				// the vtable of a removed type may lie outside of the range
+				LongArrayList vtableKeys = getClassVtableKeys(key);
+				for (int j = 0; j < vtableKeys.size(); j++) {
+					tables[1].deleteRecord(vtableKeys.get(j));
+					if (indexes[1] != null) {
+						indexes[1].remove(vtableKeys.get(j));
+					}
+				}
 			}
+			worker.getCaches().invalidate();
+			setChanged();
 		} catch (IOException e) {
 			dbError(e);
 		} finally {
@@ -364,27 +515,37 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 	@Override
 	public void moveAddressRange(Address fromAddr, Address toAddr, long length, TaskMonitor monitor)
 			throws AddressOverflowException, CancelledException {
+		if (length <= 0) {
+			return;
+		}
 		lock.acquire();
 		try {
-			Address endAddr = fromAddr.add(length);
-			Table table = worker.getTables().getTypeTable();
-			int ordinal = ClassTypeInfoSchemaFields.ADDRESS.ordinal();
-			for (long key : getTypeKeys(fromAddr, endAddr, monitor)) {
-				monitor.checkCanceled();
-				db.Record record = table.getRecord(key);
-				Address addr = decodeAddress(record.getLongValue(ordinal));
-				long offset = addr.subtract(fromAddr);
-				record.setLongValue(ordinal, encodeAddress(toAddr.add(offset)));
+			Address endAddr = fromAddr.addNoWrap(length - 1);
+			Table[] tables = getAddressTables();
+			int[] columns = getAddressColumns();
+			LongArrayList[] keys = new LongArrayList[tables.length];
+			// collect everything first as the moved records may land within the range
+			for (int i = 0; i < tables.length; i++) {
+				keys[i] = getRangedKeys(tables[i], columns[i], fromAddr, endAddr, monitor);
 			}
-			table = worker.getTables().getVtableTable();
-			ordinal = VtableSchemaFields.ADDRESS.ordinal();
-			for (long key : getVtableKeys(fromAddr, endAddr, monitor)) {
-				monitor.checkCanceled();
-				db.Record record = table.getRecord(key);
-				Address addr = decodeAddress(record.getLongValue(ordinal));
-				long offset = addr.subtract(fromAddr);
-				record.setLongValue(ordinal, encodeAddress(toAddr.add(offset)));
+			AddressKeyIndex[] indexes = getLoadedIndexes();
+			for (int i = 0; i < tables.length; i++) {
+				int ordinal = columns[i];
+				for (int j = 0; j < keys[i].size(); j++) {
+					monitor.checkCanceled();
+					db.Record record = tables[i].getRecord(keys[i].get(j));
+					Address addr = decodeAddress(record.getLongValue(ordinal));
+					long offset = addr.subtract(fromAddr);
+					long addrKey = encodeAddress(toAddr.addNoWrap(offset));
+					record.setLongValue(ordinal, addrKey);
+					tables[i].putRecord(record);
+					if (indexes[i] != null) {
+						indexes[i].put(addrKey, record.getKey());
+					}
+				}
 			}
+			worker.getCaches().invalidate();
+			setChanged();
 		} catch (IOException e) {
 			dbError(e);
 		} finally {
@@ -401,48 +562,123 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 
 	@Override
 	public ClassTypeInfoDB getType(Address address) {
-		lock.acquire();
-		try {
-			if (isVs()) {
-				Data data = program.getListing().getDataAt(address);
-				if (isRtti4Model(data)) {
-					Rtti4Model model =
-						new Rtti4Model(program, address, VsClassTypeInfo.DEFAULT_OPTIONS);
-					try {
-						address = model.getRtti0Address();
-					} catch (InvalidDataTypeException e) {
-						throw new AssertException(e);
-					}
+		if (isVs()) {
+			Data data = program.getListing().getDataAt(address);
+			if (isRtti4Model(data)) {
+				Rtti4Model model =
+					new Rtti4Model(program, address, VsClassTypeInfo.DEFAULT_OPTIONS);
+				try {
+					address = model.getRtti0Address();
+				} catch (InvalidDataTypeException e) {
+					throw new AssertException(e);
 				}
 			}
-			long key = getTypeKey(address);
-			if (key != INVALID_KEY) {
-				return worker.getType(key);
-			}
-			if (!isTypeInfo(address)) {
-				return null;
-			}
-			TypeInfo ti = getTypeInfo(address, false);
-			if (ti instanceof ClassTypeInfo) {
-				return worker.resolve((ClassTypeInfo) ti);
-			}
+		}
+		long key = getTypeKey(address);
+		if (key != INVALID_KEY) {
+			return worker.getType(key);
+		}
+		if (!isTypeInfo(address)) {
 			return null;
-		} finally {
-			lock.release();
 		}
+		TypeInfo ti = getTypeInfo(address, false);
+		if (ti instanceof ClassTypeInfo) {
+			// the worker checks again once it holds the write lock
+			return worker.resolve((ClassTypeInfo) ti);
+		}
+		return null;
 	}
 
 	@Override
 	public Vtable getVtable(Address address) {
-		lock.acquire();
+		long key = getVtableKey(address);
+		if (key == INVALID_KEY) {
+			return Vtable.NO_VTABLE;
+		}
+		return worker.getVtable(key);
+	}
+
+	/**
+	 * Gets the keys of the vtable records assigned to the type with the specified key.
+	 * A type normally has a single vtable record.
+	 * @param classKey the type key
+	 * @return the vtable keys in ascending order
+	 */
+	public long[] getVtableKeys(long classKey) {
+		lock.acquireRead();
 		try {
-			long key = getVtableKey(address);
-			if (key == INVALID_KEY) {
-				return Vtable.NO_VTABLE;
-			}
-			return worker.getVtable(key);
+			return getClassVtableKeys(classKey).toLongArray();
+		} catch (IOException e) {
+			dbError(e);
+			return new long[0];
 		} finally {
-			lock.release();
+			lock.releaseRead();
+		}
+	}
+
+	private LongArrayList getClassVtableKeys(long classKey) throws IOException {
+		Table table = worker.getTables().getVtableTable();
+		LongField key = new LongField(classKey);
+		DBLongIterator iter =
+			table.indexKeyIterator(VtableSchemaFields.CLASS.ordinal(), key, key, true);
+		LongArrayList keys = new LongArrayList();
+		while (iter.hasNext()) {
+			keys.add(iter.next());
+		}
+		// the index orders equal values by their primary key
+		return keys;
+	}
+
+	/**
+	 * Gets an iterable over the vtables assigned to the type with the specified key.
+	 * The vtables are looked up through the index on the vtable table's class column
+	 * without scanning the table.
+	 * @param classKey the type key
+	 * @return an iterable over the type's vtables
+	 */
+	public Iterable<Vtable> getVtables(long classKey) {
+		long[] keys = getVtableKeys(classKey);
+		return () -> Arrays.stream(keys)
+			.mapToObj(worker::getVtable)
+			.filter(Objects::nonNull)
+			.map(Vtable.class::cast)
+			.iterator();
+	}
+
+	/**
+	 * Gets the keys of the types directly derived from the type with the specified key.
+	 * The types are found through the persisted derived type index without scanning
+	 * the types.
+	 * @param key the base type key
+	 * @return the derived type keys
+	 */
+	public long[] getDerivedKeys(long key) {
+		lock.acquireRead();
+		try {
+			return derivedTypes.getDerivedKeys(key);
+		} catch (IOException e) {
+			dbError(e);
+			return new long[0];
+		} finally {
+			lock.releaseRead();
+		}
+	}
+
+	/**
+	 * Gets the keys of all the types directly or indirectly derived from the type with
+	 * the specified key. A type is always listed after one of its bases.
+	 * @param key the base type key
+	 * @return the derived type keys
+	 */
+	public long[] getAllDerivedKeys(long key) {
+		lock.acquireRead();
+		try {
+			return derivedTypes.getAllDerivedKeys(key);
+		} catch (IOException e) {
+			dbError(e);
+			return new long[0];
+		} finally {
+			lock.releaseRead();
 		}
 	}
 
@@ -505,11 +741,21 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 		return (AbstractClassTypeInfoDB) worker.resolve(type);
 	}
 
+	@Override
+	public List<ClassTypeInfoDB> resolveAll(Collection<? extends ClassTypeInfo> types) {
+		return new ArrayList<>(worker.resolveAll(types));
+	}
+
 	@Override
 	public Vtable resolve(Vtable vtable) {
 		return (Vtable) worker.resolve(vtable);
 	}
 
+	@Override
+	public List<Vtable> resolveAllVtables(Collection<? extends Vtable> vtables) {
+		return new ArrayList<>(worker.resolveAllVtables(vtables));
+	}
+
 	@Override
 	public AbstractClassTypeInfoDB resolve(ArchivedClassTypeInfo type) {
 		Address address = type.getAddress(program);
@@ -519,6 +765,10 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 		}
 		lock.acquire();
 		try {
+			key = getTypeKey(address);
+			if (key != INVALID_KEY) {
+				return (AbstractClassTypeInfoDB) worker.getType(key);
+			}
 			key = worker.getClassKey();
 			ClassTypeInfoRecord record =
 				ClassTypeInfoSchema.SCHEMA.getNewRecord(key);
@@ -555,8 +805,13 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 		}
 		lock.acquire();
 		try {
+			key = getVtableKey(address);
+			if (key != INVALID_KEY) {
+				return (Vtable) worker.getVtable(key);
+			}
 			key = worker.getVtableKey();
 			VtableRecord record = VtableSchema.SCHEMA.getNewRecord(key);
+			worker.prepareVtableRecord(record.getRecord());
 			worker.updateRecord(record);
 			return new VtableModelDB(worker, vtable, record);
 		} finally {
@@ -564,6 +819,59 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 		}
 	}
 
+	/**
+	 * Gets the number of modifications made to the types and vtables of this manager.
+	 * The count is incremented whenever a record is written, deleted or restored.
+	 * @return the modification count
+	 */
+	public long getModificationCount() {
+		return modificationCount.get();
+	}
+
+	private void setChanged() {
+		modificationCount.incrementAndGet();
+	}
+
+	/**
+	 * Gets the number of times functions have been created or removed in the program.
+	 * The vtables use this to tell when their resolved function tables are stale.
+	 * @return the function modification count
+	 */
+	public long getFunctionModificationCount() {
+		return functionModificationCount.get();
+	}
+
+	/**
+	 * Gets an immutable snapshot of the class hierarchy.
+	 * The snapshot is only rebuilt once the manager has been modified since it was built.
+	 * @return the hierarchy snapshot
+	 * @see #getModificationCount()
+	 */
+	public ClassHierarchySnapshot getHierarchySnapshot() {
+		ClassHierarchySnapshot snapshot = hierarchy;
+		if (snapshot != null && snapshot.getModificationCount() == getModificationCount()) {
+			return snapshot;
+		}
+		lock.acquireRead();
+		try {
+			// the count cannot change while the lock is held
+			long count = getModificationCount();
+			snapshot = hierarchy;
+			if (snapshot == null || snapshot.getModificationCount() != count) {
+				Table table = worker.getTables().getTypeTable();
+				snapshot = ClassHierarchySnapshot.build(
+					table.iterator(), table.getRecordCount(), count);
+				hierarchy = snapshot;
+			}
+			return snapshot;
+		} catch (IOException e) {
+			dbError(e);
+			return null;
+		} finally {
+			lock.releaseRead();
+		}
+	}
+
 	@Override
 	public int getTypeCount() {
 		return worker.getTables().getTypeTable().getRecordCount();
@@ -574,9 +882,87 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 		return worker.getTables().getVtableTable().getRecordCount();
 	}
 
+	/**
+	 * Sets the capacity of the type and vtable caches
+	 * @param capacity the fixed capacity or {@link RttiCachePair#ADAPTIVE_CAPACITY}
+	 * to size the caches from the number of records and the available memory
+	 */
+	public void setCacheCapacity(int capacity) {
+		lock.acquire();
+		try {
+			worker.getCaches().setCapacity(capacity, getTypeCount(), getVtableCount());
+		} finally {
+			lock.release();
+		}
+	}
+
+	/**
+	 * Gets the type cache and its hit, miss and eviction counters
+	 * @return the type cache
+	 */
+	public RttiObjectCache<AbstractClassTypeInfoDB> getTypeCache() {
+		return worker.getCaches().getTypeCache();
+	}
+
+	/**
+	 * Gets the vtable cache and its hit, miss and eviction counters
+	 * @return the vtable cache
+	 */
+	public RttiObjectCache<AbstractVtableDB> getVtableCache() {
+		return worker.getCaches().getVtableCache();
+	}
+
 	@Override
 	public Iterable<ClassTypeInfoDB> getTypes(boolean reverse) {
-		return worker.getTypes(reverse);
+		return () -> new RankedTypeIterator(reverse);
+	}
+
+	@Override
+	public List<ClassTypeInfoDB> getTypes(AddressSetView set, boolean reverse) {
+		long[] keys = getTypeKeys(set);
+		List<ClassTypeInfoDB> result = new ArrayList<>(keys.length);
+		// the types are fetched once the read lock is released as a miss builds them
+		for (int i = 0; i < keys.length; i++) {
+			ClassTypeInfoDB type = worker.getType(keys[reverse ? keys.length - 1 - i : i]);
+			if (type != null) {
+				result.add(type);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the keys of the types located within the address set through the address
+	 * index of the type table
+	 * @param set the address set
+	 * @return the type keys in ascending rank order
+	 */
+	private long[] getTypeKeys(AddressSetView set) {
+		lock.acquireRead();
+		try {
+			Table table = worker.getTables().getTypeTable();
+			int column = ClassTypeInfoSchemaFields.ADDRESS.ordinal();
+			List<long[]> ranked = new ArrayList<>();
+			for (KeyRange range : map.getKeyRanges(set, false)) {
+				DBLongIterator iter = table.indexKeyIterator(
+					column, new LongField(range.minKey), new LongField(range.maxKey), true);
+				while (iter.hasNext()) {
+					long key = iter.next();
+					db.Record record = table.getRecord(key);
+					ranked.add(new long[] {
+						record.getIntValue(ClassTypeInfoSchemaFields.RANK.ordinal()), key
+					});
+				}
+			}
+			// the same order as the rank index which orders equal ranks by key
+			ranked.sort(Comparator.<long[]>comparingLong(a -> a[0]).thenComparingLong(a -> a[1]));
+			return ranked.stream().mapToLong(a -> a[1]).toArray();
+		} catch (IOException e) {
+			dbError(e);
+			return new long[0];
+		} finally {
+			lock.releaseRead();
+		}
 	}
 
 	@Override
@@ -589,205 +975,259 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 
 	@Override
 	public Stream<ClassTypeInfoDB> getTypeStream(boolean reverse) {
-		return worker.getTypeStream(reverse);
+		Iterator<ClassTypeInfoDB> iter = new RankedTypeIterator(reverse);
+		return StreamSupport.stream(Spliterators.spliterator(iter, getTypeCount(),
+			Spliterator.ORDERED | Spliterator.NONNULL), false);
 	}
 
-	@Override
-	public Stream<Vtable> getVtableStream() {
-		// vtableTable is NOT sorted
-		return getTypeStream()
-				.map(ClassTypeInfo::getVtable)
-				.filter(Vtable::isValid);
+	/**
+	 * Gets a stream of the types with keys in the specified range in key order
+	 * @param minKey the minimum key (inclusive)
+	 * @param maxKey the maximum key (inclusive)
+	 * @param reverse true to stream the types in descending key order
+	 * @return the stream of types
+	 */
+	Stream<ClassTypeInfoDB> getTypeStream(long minKey, long maxKey, boolean reverse) {
+		return worker.getTypeStream(minKey, maxKey, reverse);
 	}
 
-	private ClassTypeInfoRecord[] getClassRecords() {
-		lock.acquire();
+	private DBLongIterator getRankedKeys(boolean reverse) {
+		lock.acquireRead();
 		try {
-			ClassTypeInfoRecord[] keys = new ClassTypeInfoRecord[getTypeCount()];
-			RecordIterator iter = worker.getTables().getTypeTable().iterator();
-			for (int i = 0; i < keys.length && iter.hasNext(); i++) {
-				keys[i] = new ClassTypeInfoRecord(iter.next());
-			}
-			return keys;
+			Table table = worker.getTables().getTypeTable();
+			return table.indexKeyIterator(ClassTypeInfoSchemaFields.RANK.ordinal(),
+				new IntField(0), new IntField(Integer.MAX_VALUE), !reverse);
 		} catch (IOException e) {
 			dbError(e);
 			return null;
 		} finally {
-			lock.release();
+			lock.releaseRead();
 		}
 	}
 
-	private Stream<ClassTypeInfoRecord> getRecordStream(ClassTypeInfoRecord[] records) {
-		return Arrays.stream(records)
-				.parallel();
+	@Override
+	public Stream<Vtable> getVtableStream() {
+		// vtableTable is NOT sorted
+		return getTypeStream()
+				.map(ClassTypeInfo::getVtable)
+				.filter(Vtable::isValid);
 	}
 
 	@Override
 	public void findVtables(TaskMonitor monitor) throws CancelledException {
 		TaskMonitor dummy = new CancelOnlyWrappingTaskMonitor(monitor);
-		sort(monitor);
+		matchVtables(null, monitor);
 		monitor.initialize(getTypeCount());
 		monitor.setMessage("Finding vtables");
-		TypeInfoArchiveChangeRecord changeRecord = null;
-		for (ClassTypeInfoDB type : getTypes(true)) {
-			monitor.checkCanceled();
-			type.findVtable(dummy);
-			changeRecord = new TypeInfoArchiveChangeRecord(ChangeType.TYPE_UPDATED, type);
-			plugin.managerChanged(changeRecord);
-			monitor.incrementProgress(1);
+		List<ClassTypeInfoDB> updated = new ArrayList<>();
+		try {
+			for (ClassTypeInfoDB type : getTypes(true)) {
+				monitor.checkCanceled();
+				type.findVtable(dummy);
+				updated.add(type);
+				monitor.incrementProgress(1);
+			}
+		} finally {
+			typesUpdated(updated);
 		}
 	}
 
-	private void sort(TaskMonitor monitor) throws CancelledException {
-		lock.acquire();
+	@Override
+	public void findVtables(AddressSetView set, TaskMonitor monitor) throws CancelledException {
+		TaskMonitor dummy = new CancelOnlyWrappingTaskMonitor(monitor);
+		matchVtables(set, monitor);
+		monitor.setMessage("Finding vtables");
+		List<ClassTypeInfoDB> types = getTypes(set, true);
+		monitor.initialize(types.size());
+		List<ClassTypeInfoDB> updated = new ArrayList<>(types.size());
 		try {
-			Table classTable = worker.getTables().getTypeTable();
-			classTable.rebuild(monitor);
-			if (classTable.getMaxKey() > Integer.MAX_VALUE) {
-				throw new AssertException(
-					"Ghidra-Cpp-Class-Analyzer: Unable to sort Database. Too many keys");
-			}
-			ClassTypeInfoRecord[] records = getClassRecords();
-			ReferenceCounter[] keys = getRecordStream(records)
-					.map(ReferenceCounter::new)
-					.toArray(ReferenceCounter[]::new);
-			for (ClassTypeInfoRecord record : records) {
+			for (ClassTypeInfoDB type : types) {
 				monitor.checkCanceled();
-				long[] baseKeys = AbstractClassTypeInfoDB.getBaseKeys(record);
-				for (long key : baseKeys) {
-					keys[(int) key].referencesFrom.getAndIncrement();
-				}
+				type.findVtable(dummy);
+				updated.add(type);
+				monitor.incrementProgress(1);
 			}
-			Arrays.parallelSort(keys);
-			long[] newKeys = Arrays.stream(keys)
-					.mapToLong(ReferenceCounter::getKey)
-					.toArray();
-			newKeys = sortByMostDerived(newKeys, monitor);
-			rebuildTable(newKeys, monitor);
-			for (long key = 0; key < classTable.getMaxKey(); key++) {
+		} finally {
+			typesUpdated(updated);
+		}
+	}
+
+	private void typesUpdated(List<ClassTypeInfoDB> types) {
+		if (!types.isEmpty()) {
+			plugin.managerChanged(
+				new TypeInfoArchiveChangeRecord(ChangeType.TYPES_UPDATED, types));
+		}
+	}
+
+	/**
+	 * Matches the vtables for all the types which have not yet been searched in a
+	 * single pass and assigns them in one transaction. Assigning a vtable also marks
+	 * its type as searched. The types which could not be matched are left unsearched
+	 * so that they fall back to the search made by {@code findVtable}, which
+	 * also finds the vtables the data block scan cannot see.
+	 * @param set the address set containing the types and their vtables
+	 * or null for all types and all of the data blocks
+	 * @param monitor the task monitor
+	 * @throws CancelledException if the matching is cancelled
+	 */
+	private void matchVtables(AddressSetView set, TaskMonitor monitor)
+			throws CancelledException {
+		if (!isGnu()) {
+			return;
+		}
+		Map<Address, Long> types = new HashMap<>();
+		if (set != null) {
+			// only the types within the set are read through the address index
+			for (long key : getTypeKeys(set)) {
 				monitor.checkCanceled();
-				ClassTypeInfoRecord record = worker.getTypeRecord(key);
-				for (long baseKey : AbstractClassTypeInfoDB.getBaseKeys(record)) {
+				addUnsearchedType(types, worker.getTypeRecord(key));
+			}
+		} else {
+			lock.acquireRead();
+			try {
+				SchemaRecordIterator<ClassTypeInfoRecord> iter = new SchemaRecordIterator<>(
+					worker.getTables().getTypeTable().iterator(), ClassTypeInfoRecord::new);
+				while (iter.hasNext()) {
 					monitor.checkCanceled();
-					if (baseKey > key) {
-						throw new AssertException(String.format(
-							"%d must come before %d because it is inherited by it.",
-							baseKey, key));
-					}
+					addUnsearchedType(types, iter.next());
 				}
+			} catch (IOException e) {
+				dbError(e);
+				return;
+			} finally {
+				lock.releaseRead();
 			}
-			TypeInfoArchiveChangeRecord changeRecord = null;
-			for (ClassTypeInfoRecord record : getClassRecords()) {
+		}
+		Map<Long, Vtable> vtables = new GnuVtableMatcher(this, set).match(types, monitor);
+		if (vtables.isEmpty()) {
+			return;
+		}
+		int id = program.startTransaction("Assigning vtables");
+		boolean success = false;
+		lock.acquire();
+		try {
+			List<Long> keys = new ArrayList<>(vtables.keySet());
+			List<AbstractVtableDB> resolved = worker.resolveAllVtables(vtables.values());
+			for (int i = 0; i < keys.size(); i++) {
 				monitor.checkCanceled();
-				AbstractClassTypeInfoDB type =
-					(AbstractClassTypeInfoDB) worker.getType(record.getKey());
-				Vtable vtable = type.getVtable();
-				if (vtable instanceof AbstractVtableDB) {
-					AbstractVtableDB vtableDB = (AbstractVtableDB) vtable;
-					vtableDB.setClassKey(record.getKey());
-				}
-				changeRecord = new TypeInfoArchiveChangeRecord(ChangeType.TYPE_UPDATED, type);
-				plugin.managerChanged(changeRecord);
+				long key = keys.get(i);
+				AbstractVtableDB vtable = resolved.get(i);
+				vtable.setClassKey(key);
+				((AbstractClassTypeInfoDB) getType(key)).setVtable(vtable);
 			}
-		} catch (IOException e) {
-			dbError(e);
+			success = true;
 		} finally {
 			lock.release();
+			program.endTransaction(id, success);
+		}
+	}
+
+	private void addUnsearchedType(Map<Address, Long> types, ClassTypeInfoRecord record) {
+		if (record == null
+				|| record.getBooleanValue(ClassTypeInfoSchemaFields.VTABLE_SEARCHED)) {
+			return;
 		}
+		Address address = decodeAddress(record.getLongValue(ClassTypeInfoSchemaFields.ADDRESS));
+		types.put(address, record.getKey());
 	}
 
-	private void rebuildTable(long[] newKeys, TaskMonitor monitor) throws CancelledException {
+	@Override
+	public void findVtts(TaskMonitor monitor) throws CancelledException {
+		if (!isGnu()) {
+			return;
+		}
+		// every lookup is served from the one read of the data blocks
+		DataReferenceIndex index = DataReferenceIndex.getIndex(program, monitor);
+		monitor.initialize(getTypeCount());
+		monitor.setMessage("Locating VTTs");
+		int id = program.startTransaction("Locating VTTs");
+		boolean success = false;
 		lock.acquire();
 		try {
-			DBHandle handle = program.getDBHandle();
-			Table classTable = worker.getTables().getTypeTable();
-			try {
-				classTable.setName("old" + classTable.getName());
-			} catch (DuplicateNameException e) {
-				throw new AssertException(
-					"Ghidra-Cpp-Class-Analyzer: cannot create temporary table");
-			}
-			ClassTypeInfoDatabaseTable tmpTable = getNewClassTable(handle);
-			SchemaRecordIterator<ClassTypeInfoRecord> iter =
-				new SchemaRecordIterator<>(classTable.iterator(), ClassTypeInfoRecord::new);
-			LongIntHashtable keyMap = new LongIntHashtable(newKeys.length);
-			for (int i = 0; i < newKeys.length; i++) {
+			Table table = vttTable.getTable();
+			for (ClassTypeInfoDB type : getTypes()) {
 				monitor.checkCanceled();
-				keyMap.put(newKeys[i], i);
-			}
-			try {
-				while (iter.hasNext()) {
-					monitor.checkCanceled();
-					ClassTypeInfoRecord oldRecord = iter.next();
-					ClassTypeInfoRecord record = oldRecord.copy();
-					record.setKey(keyMap.get(record.getKey()));
-					if (record.getBooleanValue(ClassTypeInfoSchemaFields.VTABLE_SEARCHED)) {
-						// since the vtable table will be removed
-						// this information must be cleared if present
-						record.setBooleanValue(ClassTypeInfoSchemaFields.VTABLE_SEARCHED, false);
-						record.setLongValue(ClassTypeInfoSchemaFields.VTABLE_KEY, INVALID_KEY);
-					}
-					AbstractClassTypeInfoDB.updateRecord(record, keyMap);
-					tmpTable.getTable().putRecord(record.getRecord());
+				monitor.incrementProgress(1);
+				if (table.hasRecord(type.getKey())) {
+					continue;
+				}
+				Vtable vtable = type.getVtable();
+				if (Vtable.isValid(vtable)) {
+					putVtt(type.getKey(), VtableUtils.getVttModel(program, (GnuVtable) vtable, index));
 				}
-			} catch (NoValueException e) {
-				// impossible. this should not be a checked exception!
-				throw new AssertException(e);
-			}
-			worker.getTables().deleteAll();
-			worker.getCaches().invalidate();
-			iter = new SchemaRecordIterator<>(
-				tmpTable.getTable().iterator(), ClassTypeInfoRecord::new);
-			while (iter.hasNext()) {
-				monitor.checkCanceled();
-				classTable.putRecord(iter.next().copy().getRecord());
 			}
-			handle.deleteTable(tmpTable.getName());
-			classTable.setName(AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME);
+			success = true;
 		} catch (IOException e) {
 			dbError(e);
-		} catch (DuplicateNameException e) {
-			throw new AssertException(e);
 		} finally {
 			lock.release();
+			program.endTransaction(id, success);
 		}
 	}
 
-	private long[] sortByMostDerived(long[] oldKeys, TaskMonitor monitor)
-			throws CancelledException {
-		// cannot reuse old keys due to risk of overrunning the position of 'oldKey'
-		long[] newKeys = new long[oldKeys.length];
-		RedBlackLongKeySet processed = new RedBlackLongKeySet();
-		LongStack stack = new LongStack();
-		int index = 0;
-		for (long oldKey : oldKeys) {
-			monitor.checkCanceled();
-			stack.push(oldKey);
-			while (!stack.isEmpty()) {
-				monitor.checkCanceled();
-				long key = stack.pop();
-				if (processed.containsKey(key)) {
-					continue;
-				}
-				ClassTypeInfoRecord record = worker.getTypeRecord(key);
-				boolean dirty = false;
-				for (long base : AbstractClassTypeInfoDB.getBaseKeys(record)) {
-					monitor.checkCanceled();
-					if (!processed.containsKey(base)) {
-						if (!dirty) {
-							stack.push(key);
-						}
-						dirty = true;
-						stack.push(base);
-					}
-				}
-				if (!dirty) {
-					processed.put(key);
-					newKeys[index++] = key;
+	private void putVtt(long key, VttModel vtt) throws IOException {
+		VttRecord record = VttSchema.SCHEMA.getNewRecord(key);
+		// a type without a VTT is recorded so it is not searched again
+		long addrKey = vtt.isValid()
+			? encodeAddress(vtt.getAddress()) : AddressMap.INVALID_ADDRESS_KEY;
+		record.setLongValue(VttSchemaFields.ADDRESS, addrKey);
+		vttTable.getTable().putRecord(record.getRecord());
+	}
+
+	@Override
+	public VttModel getVtt(ClassTypeInfo type) {
+		long key;
+		lock.acquireRead();
+		try {
+			key = getTypeKey(type.getAddress());
+			if (key == INVALID_KEY) {
+				return VttModel.INVALID;
+			}
+			VttRecord record = vttTable.getRecord(key);
+			if (record != null) {
+				long addrKey = record.getLongValue(VttSchemaFields.ADDRESS);
+				if (addrKey == AddressMap.INVALID_ADDRESS_KEY) {
+					return VttModel.INVALID;
 				}
+				return new VttModel(program, decodeAddress(addrKey));
 			}
+		} catch (IOException e) {
+			dbError(e);
+			return VttModel.INVALID;
+		} finally {
+			lock.releaseRead();
+		}
+		// programs analyzed before the VTTs were stored have no records
+		return locateVtt(key, type);
+	}
+
+	private VttModel locateVtt(long key, ClassTypeInfo type) {
+		Vtable vtable = type.getVtable();
+		if (!(Vtable.isValid(vtable) && vtable instanceof GnuVtable)) {
+			return VttModel.INVALID;
+		}
+		// reuse the index built for the current analysis session if there is one
+		DataReferenceIndex index = DataReferenceIndex.getExistingIndex(program);
+		VttModel vtt = index != null
+			? VtableUtils.getVttModel(program, (GnuVtable) vtable, index)
+			: VtableUtils.getVttModel(program, (GnuVtable) vtable);
+		if (program.getCurrentTransaction() == null) {
+			return vtt;
 		}
-		return newKeys;
+		lock.acquire();
+		try {
+			putVtt(key, vtt);
+		} catch (IOException e) {
+			dbError(e);
+		} finally {
+			lock.release();
+		}
+		return vtt;
+	}
+
+	@Override
+	public boolean containsType(Address address) {
+		return containsClassKey(address);
 	}
 
 	@Override
@@ -796,34 +1236,29 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 	}
 
 	public TypeInfo getTypeInfo(Address address, boolean resolve) {
-		lock.acquire();
-		try {
-			if (containsClassKey(address) && resolve) {
-				return getType(address);
-			}
-			if (!isTypeInfo(address)) {
-				return null;
-			}
-			TypeInfo type = null;
-			if (isGnu()) {
-				type = TypeInfoFactory.getTypeInfo(program, address);
-			}
-			if (isVs()) {
-				TypeDescriptorModel model =
-					new TypeDescriptorModel(program, address, VsClassTypeInfo.DEFAULT_OPTIONS);
-				try {
-					type = RttiModelWrapper.getWrapper(model, TaskMonitor.DUMMY);
-				} catch (CancelledException e) {
-					throw new AssertException(e);
-				}
-			}
-			if (type instanceof ClassTypeInfo && resolve) {
-				type = resolve((ClassTypeInfo) type);
+		if (containsClassKey(address) && resolve) {
+			return getType(address);
+		}
+		if (!isTypeInfo(address)) {
+			return null;
+		}
+		TypeInfo type = null;
+		if (isGnu()) {
+			type = TypeInfoFactory.getTypeInfo(program, address);
+		}
+		if (isVs()) {
+			TypeDescriptorModel model =
+				new TypeDescriptorModel(program, address, VsClassTypeInfo.DEFAULT_OPTIONS);
+			try {
+				type = RttiModelWrapper.getWrapper(model, TaskMonitor.DUMMY);
+			} catch (CancelledException e) {
+				throw new AssertException(e);
 			}
-			return type;
-		} finally {
-			lock.release();
 		}
+		if (type instanceof ClassTypeInfo && resolve) {
+			type = resolve((ClassTypeInfo) type);
+		}
+		return type;
 	}
 
 	@Override
@@ -883,56 +1318,82 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 
 	@Override
 	public AbstractClassTypeInfoDB getType(UniversalID id) {
-		lock.acquire();
+		long[] keys;
+		lock.acquireRead();
 		try {
 			Table table = worker.getTables().getTypeTable();
 			LongField field = new LongField(id.getValue());
-			long[] keys =
-				table.findRecords(field, ClassTypeInfoSchemaFields.DATATYPE_ID.ordinal());
-			if (keys.length == 1) {
-				return worker.getType(keys[0]);
-			}
+			keys = table.findRecords(field, ClassTypeInfoSchemaFields.DATATYPE_ID.ordinal());
 		} catch (IOException e) {
 			dbError(e);
+			return null;
 		} finally {
-			lock.release();
+			lock.releaseRead();
+		}
+		if (keys.length == 1) {
+			return worker.getType(keys[0]);
 		}
 		return null;
 	}
 
-	private static class ReferenceCounter implements Comparable<ReferenceCounter> {
+	/**
+	 * An iterator over the types in order of their topological rank.
+	 * The bases of a type always precede it unless the iteration is reversed.
+	 */
+	private final class RankedTypeIterator implements Iterator<ClassTypeInfoDB> {
 
-		final long key;
-		final long referencesTo;
-		final AtomicLong referencesFrom;
+		private final boolean reverse;
+		private final DBLongIterator iter;
 
-		ReferenceCounter(ClassTypeInfoRecord record) {
-			key = record.getKey();
-			referencesTo = AbstractClassTypeInfoDB.getBaseCount(record);
-			referencesFrom = new AtomicLong();
+		RankedTypeIterator(boolean reverse) {
+			this.reverse = reverse;
+			this.iter = getRankedKeys(reverse);
 		}
 
-		public long getKey() {
-			return key;
+		@Override
+		public boolean hasNext() {
+			lock.acquireRead();
+			try {
+				return iter != null && (reverse ? iter.hasPrevious() : iter.hasNext());
+			} catch (IOException e) {
+				dbError(e);
+				return false;
+			} finally {
+				lock.releaseRead();
+			}
 		}
 
 		@Override
-		public int compareTo(ReferenceCounter o) {
-			long tFrom = referencesFrom.get();
-			long oFrom = o.referencesFrom.get();
-			if (tFrom < oFrom) {
-				return -1;
-			}
-			if (tFrom > oFrom) {
-				return 1;
-			}
-			if (referencesTo < o.referencesTo) {
-				return -1;
+		public ClassTypeInfoDB next() {
+			long key;
+			lock.acquireRead();
+			try {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				key = reverse ? iter.previous() : iter.next();
+			} catch (IOException e) {
+				dbError(e);
+				throw new NoSuchElementException();
+			} finally {
+				lock.releaseRead();
 			}
-			if (referencesTo > o.referencesTo) {
-				return 1;
+			return worker.getType(key);
+		}
+	}
+
+	private final class ProgramChangeListener implements DomainObjectListener {
+
+		@Override
+		public void domainObjectChanged(DomainObjectChangedEvent event) {
+			if (event.containsEvent(DomainObject.DO_OBJECT_RESTORED)) {
+				// an undo, redo or aborted transaction may have changed any record
+				functionModificationCount.incrementAndGet();
+				invalidateCache(true);
+			} else if (event.containsEvent(ChangeManager.DOCR_FUNCTION_ADDED)
+					|| event.containsEvent(ChangeManager.DOCR_FUNCTION_REMOVED)) {
+				functionModificationCount.incrementAndGet();
 			}
-			return 0;
 		}
 	}
 
@@ -950,13 +1411,16 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 				ClassTypeInfoRecord, VtableRecord, ProgramRttiTablePair>
 			implements ProgramRttiRecordManager {
 
+		// set by prepareTypeRecord for the following typeRecordChanged
+		private boolean rankChanged;
+
 		RttiRecordWorker(ProgramRttiTablePair tables, ProgramRttiCachePair caches) {
 			super(tables, caches, getHandler());
 		}
 
 		@Override
 		public final void dbError(IOException e) {
-			dbError(e);
+			ClassTypeInfoManagerDB.this.dbError(e);
 		}
 
 		@Override
@@ -974,6 +1438,132 @@ public class ClassTypeInfoManagerDB implements ManagerDB, ProgramClassTypeInfoMa
 			lock.release();
 		}
 
+		@Override
+		final void acquireReadLock() {
+			lock.acquireRead();
+		}
+
+		@Override
+		final void releaseReadLock() {
+			lock.releaseRead();
+		}
+
+		@Override
+		final void prepareTypeRecord(db.Record record) {
+			ClassTypeInfoRecord typeRecord = new ClassTypeInfoRecord(record);
+			int ordinal = ClassTypeInfoSchemaFields.MODEL_DATA.ordinal();
+			rankChanged = false;
+			try {
+				db.Record old = getTables().getTypeTable().getRecord(record.getKey());
+				if (old != null
+						&& Arrays.equals(old.getBinaryData(ordinal), record.getBinaryData(ordinal))) {
+					// the bases are unchanged so neither the rank nor the edges need updating
+					typeRecord.setIntValue(ClassTypeInfoSchemaFields.RANK,
+						old.getIntValue(ClassTypeInfoSchemaFields.RANK.ordinal()));
+					return;
+				}
+				int rank = getRank(typeRecord);
+				typeRecord.setIntValue(ClassTypeInfoSchemaFields.RANK, rank);
+				rankChanged = old != null
+					&& old.getIntValue(ClassTypeInfoSchemaFields.RANK.ordinal()) != rank;
+				if (old != null || record.getBinaryData(ordinal) != null) {
+					derivedTypes.update(record);
+				}
+			} catch (IOException e) {
+				dbError(e);
+			}
+		}
+
+		/**
+		 * Recomputes the ranks of the types derived from a type whose rank has changed.
+		 * A derived type is only revisited when one of its bases has changed rank so
+		 * the ranks remain strictly increasing from each base to its derived types.
+		 * @param key the key of the type whose rank changed
+		 * @throws IOException if an error occurs updating the table
+		 */
+		private void updateDerivedRanks(long key) throws IOException {
+			Table table = getTables().getTypeTable();
+			LongArrayList pending = new LongArrayList();
+			addDerivedKeys(key, pending);
+			for (int i = 0; i < pending.size(); i++) {
+				db.Record record = table.getRecord(pending.get(i));
+				if (record == null) {
+					continue;
+				}
+				ClassTypeInfoRecord typeRecord = new ClassTypeInfoRecord(record);
+				int rank = getRank(typeRecord);
+				if (rank != record.getIntValue(ClassTypeInfoSchemaFields.RANK.ordinal())) {
+					typeRecord.setIntValue(ClassTypeInfoSchemaFields.RANK, rank);
+					// written directly as the model data and therefore the edges are unchanged
+					table.putRecord(record);
+					addDerivedKeys(record.getKey(), pending);
+				}
+			}
+		}
+
+		private void addDerivedKeys(long key, LongArrayList keys) throws IOException {
+			for (long derived : derivedTypes.getDerivedKeys(key)) {
+				keys.add(derived);
+			}
+		}
+
+		/**
+		 * Gets the topological rank of the type which is one greater than the rank of
+		 * its highest ranked base. The bases are always resolved and written before the
+		 * record of a class which inherits them. If the rank of a base changes later on
+		 * the ranks of its derived types are updated by {@link #updateDerivedRanks}.
+		 * @param record the type record
+		 * @return the type's rank
+		 */
+		private int getRank(ClassTypeInfoRecord record) {
+			if (record.getBinaryData(ClassTypeInfoSchemaFields.MODEL_DATA) == null) {
+				// the model data is filled in after the record is created
+				return 0;
+			}
+			int rank = 0;
+			for (long baseKey : AbstractClassTypeInfoDB.getBaseKeys(record)) {
+				ClassTypeInfoRecord base = getTypeRecord(baseKey);
+				if (base != null) {
+					rank = Math.max(rank, base.getIntValue(ClassTypeInfoSchemaFields.RANK) + 1);
+				}
+			}
+			return rank;
+		}
+
+		@Override
+		final void typeRecordChanged(db.Record record) {
+			setChanged();
+			AddressKeyIndex index = typeIndex;
+			if (index != null) {
+				index.put(record.getLongValue(ClassTypeInfoSchemaFields.ADDRESS.ordinal()),
+					record.getKey());
+			}
+			if (rankChanged) {
+				rankChanged = false;
+				try {
+					updateDerivedRanks(record.getKey());
+				} catch (IOException e) {
+					dbError(e);
+				}
+			}
+		}
+
+		@Override
+		final void prepareVtableRecord(db.Record record) {
+			// zero is a valid type key so a vtable without a class must not be left at it
+			record.setLongValue(VtableSchemaFields.CLASS.ordinal(), INVALID_KEY);
+		}
+
+		@Override
+		final void vtableRecordChanged(db.Record record) {
+			setChanged();
+			AddressKeyIndex index = vtableIndex;
+			if (index != null) {
+				index.put(record.getLongValue(VtableSchemaFields.ADDRESS.ordinal()),
+					record.getKey());
+			}
+		}
+
 		@Override
 		final long getTypeKey(ClassTypeInfo type) {
 			return getManager().getTypeKey(type.getAddress());
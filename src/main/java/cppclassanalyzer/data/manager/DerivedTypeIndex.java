@@ -0,0 +1,151 @@
+package cppclassanalyzer.data.manager;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import ghidra.util.datastruct.LongArrayList;
+
+import cppclassanalyzer.data.typeinfo.AbstractClassTypeInfoDB;
+import cppclassanalyzer.database.record.ClassTypeInfoRecord;
+import cppclassanalyzer.database.record.DerivedTypeRecord;
+import cppclassanalyzer.database.schema.DerivedTypeSchema;
+import cppclassanalyzer.database.schema.fields.ClassTypeInfoSchemaFields;
+import cppclassanalyzer.database.schema.fields.DerivedTypeSchemaFields;
+import cppclassanalyzer.database.tables.DerivedTypeDatabaseTable;
+
+import db.LongField;
+import db.RecordIterator;
+import db.Table;
+
+/**
+ * A persisted index from each type to the types directly derived from it.
+ * <p>
+ * Each record of the table is one inheritance edge and both of its columns are
+ * indexed, so the derived types of a base are found without scanning the types and
+ * the edges of a type can be replaced when its bases change. The index is not
+ * synchronized and must be guarded by the owning manager's lock.
+ */
+final class DerivedTypeIndex {
+
+	private static final long[] NO_KEYS = new long[0];
+
+	private final DerivedTypeDatabaseTable table;
+
+	DerivedTypeIndex(DerivedTypeDatabaseTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Fills the index from the records of the type table
+	 * @param typeTable the type table
+	 * @throws IOException if an error occurs reading or writing the tables
+	 */
+	void fill(Table typeTable) throws IOException {
+		RecordIterator iter = typeTable.iterator();
+		while (iter.hasNext()) {
+			update(iter.next());
+		}
+	}
+
+	/**
+	 * Updates the edges of a type from its record
+	 * @param record the type record
+	 * @throws IOException if an error occurs updating the table
+	 */
+	void update(db.Record record) throws IOException {
+		ClassTypeInfoRecord typeRecord = new ClassTypeInfoRecord(record);
+		long[] baseKeys = NO_KEYS;
+		if (typeRecord.getBinaryData(ClassTypeInfoSchemaFields.MODEL_DATA) != null) {
+			baseKeys = AbstractClassTypeInfoDB.getBaseKeys(typeRecord);
+		}
+		setBases(record.getKey(), baseKeys);
+	}
+
+	private void setBases(long key, long[] baseKeys) throws IOException {
+		Table edges = table.getTable();
+		Set<Long> missing = new HashSet<>(baseKeys.length);
+		for (long baseKey : baseKeys) {
+			missing.add(baseKey);
+		}
+		RecordIterator iter = getEdges(DerivedTypeSchemaFields.DERIVED, key);
+		while (iter.hasNext()) {
+			db.Record edge = iter.next();
+			if (!missing.remove(edge.getLongValue(DerivedTypeSchemaFields.BASE.ordinal()))) {
+				iter.delete();
+			}
+		}
+		for (long baseKey : baseKeys) {
+			// a base is only added once even if it is listed more than once
+			if (missing.remove(baseKey)) {
+				DerivedTypeRecord edge = DerivedTypeSchema.SCHEMA.getNewRecord(edges.getKey());
+				edge.setLongValue(DerivedTypeSchemaFields.BASE, baseKey);
+				edge.setLongValue(DerivedTypeSchemaFields.DERIVED, key);
+				edges.putRecord(edge.getRecord());
+			}
+		}
+	}
+
+	/**
+	 * Removes every edge to and from a deleted type
+	 * @param key the type key
+	 * @throws IOException if an error occurs updating the table
+	 */
+	void remove(long key) throws IOException {
+		for (DerivedTypeSchemaFields field : DerivedTypeSchemaFields.values()) {
+			RecordIterator iter = getEdges(field, key);
+			while (iter.hasNext()) {
+				iter.next();
+				iter.delete();
+			}
+		}
+	}
+
+	/**
+	 * Gets the keys of the types directly derived from a type
+	 * @param key the base type key
+	 * @return the derived type keys
+	 * @throws IOException if an error occurs reading the table
+	 */
+	long[] getDerivedKeys(long key) throws IOException {
+		LongArrayList result = new LongArrayList();
+		addDerivedKeys(key, result);
+		return result.toLongArray();
+	}
+
+	/**
+	 * Gets the keys of all the types directly or indirectly derived from a type.
+	 * The keys are in breadth first order so a type always follows one of its bases.
+	 * @param key the base type key
+	 * @return the derived type keys
+	 * @throws IOException if an error occurs reading the table
+	 */
+	long[] getAllDerivedKeys(long key) throws IOException {
+		LongArrayList result = new LongArrayList();
+		Set<Long> visited = new HashSet<>();
+		LongArrayList derived = new LongArrayList();
+		addDerivedKeys(key, derived);
+		for (int i = 0; i < derived.size(); i++) {
+			long current = derived.get(i);
+			// a type reached through more than one base is only listed once
+			if (visited.add(current)) {
+				result.add(current);
+				addDerivedKeys(current, derived);
+			}
+		}
+		return result.toLongArray();
+	}
+
+	private void addDerivedKeys(long key, LongArrayList result) throws IOException {
+		RecordIterator iter = getEdges(DerivedTypeSchemaFields.BASE, key);
+		while (iter.hasNext()) {
+			result.add(iter.next().getLongValue(DerivedTypeSchemaFields.DERIVED.ordinal()));
+		}
+	}
+
+	private RecordIterator getEdges(DerivedTypeSchemaFields field, long key)
+			throws IOException {
+		LongField value = new LongField(key);
+		return table.getTable().indexIterator(field.ordinal(), value, value, true);
+	}
+}
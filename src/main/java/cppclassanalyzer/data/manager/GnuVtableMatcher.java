@@ -0,0 +1,87 @@
+package cppclassanalyzer.data.manager;
+
+import java.util.*;
+
+import ghidra.app.cmd.data.rtti.ClassTypeInfo;
+import ghidra.app.cmd.data.rtti.Vtable;
+import ghidra.app.cmd.data.rtti.gcc.ClassTypeInfoUtils;
+import ghidra.program.model.address.Address;
+import ghidra.program.model.address.AddressSetView;
+import ghidra.program.model.listing.Program;
+import ghidra.util.exception.CancelledException;
+import ghidra.util.task.CancelOnlyWrappingTaskMonitor;
+import ghidra.util.task.TaskMonitor;
+
+import cppclassanalyzer.data.ProgramClassTypeInfoManager;
+import cppclassanalyzer.utils.RttiSignatureScanner;
+
+import static ghidra.app.util.datatype.microsoft.MSDataTypeUtils.getAbsoluteAddress;
+
+/**
+ * Matches the vtables for many GNU ClassTypeInfo at once.
+ * <p>
+ * A single ordered pass is made over every vtable header in the data blocks
+ * (an offset-to-top of 0 followed by a typeinfo pointer). The headers are joined
+ * against the known typeinfo addresses and each type's candidates are validated
+ * in ascending order, the same as {@link ClassTypeInfoUtils#findVtable}.
+ */
+final class GnuVtableMatcher {
+
+	private final Program program;
+	private final ProgramClassTypeInfoManager manager;
+	private final AddressSetView set;
+
+	/**
+	 * Constructs a new GnuVtableMatcher
+	 * @param manager the manager of the types
+	 * @param set the address set to scan for vtable headers or null for all the data blocks
+	 */
+	GnuVtableMatcher(ProgramClassTypeInfoManager manager, AddressSetView set) {
+		this.program = manager.getProgram();
+		this.manager = manager;
+		this.set = set;
+	}
+
+	/**
+	 * Matches the vtables for the types
+	 * @param types the keys of the types to match keyed by their address
+	 * @param monitor the task monitor
+	 * @return the matched vtables keyed by the key of their type
+	 * @throws CancelledException if the matching is cancelled
+	 */
+	Map<Long, Vtable> match(Map<Address, Long> types, TaskMonitor monitor)
+			throws CancelledException {
+		if (types.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		RttiSignatureScanner scanner = new RttiSignatureScanner(program, set);
+		Set<Address> headers = scanner.findVtableCandidates(types.keySet(), monitor);
+		int pointerSize = program.getDefaultPointerSize();
+		Map<Long, Set<Address>> candidates = new HashMap<>();
+		for (Address header : headers) {
+			monitor.checkCanceled();
+			Address reference = header.add(pointerSize);
+			Long key = types.get(getAbsoluteAddress(program, reference));
+			if (key != null) {
+				candidates.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(reference);
+			}
+		}
+		TaskMonitor dummy = new CancelOnlyWrappingTaskMonitor(monitor);
+		Map<Long, Vtable> result = new HashMap<>(candidates.size());
+		monitor.initialize(candidates.size());
+		monitor.setMessage("Matching vtables");
+		// the candidates of each type are validated independently of the other types
+		for (Map.Entry<Long, Set<Address>> entry : candidates.entrySet()) {
+			monitor.checkCanceled();
+			long key = entry.getKey();
+			ClassTypeInfo type = manager.getType(key);
+			Vtable vtable =
+				ClassTypeInfoUtils.getValidVtable(program, entry.getValue(), dummy, type);
+			if (Vtable.isValid(vtable)) {
+				result.put(entry.getKey(), vtable);
+			}
+			monitor.incrementProgress(1);
+		}
+		return result;
+	}
+}
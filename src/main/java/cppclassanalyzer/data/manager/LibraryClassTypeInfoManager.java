@@ -42,6 +42,7 @@ public final class LibraryClassTypeInfoManager implements ClassTypeInfoManager {
 		this.treeNodeManager =
 			new TypeInfoTreeNodeManager(this, dbHandle, name);
 		this.worker = new RttiRecordWorker(tables, new ArchivedRttiCachePair());
+		worker.adaptCaches();
 		this.name = name;
 	}
 
@@ -166,6 +167,16 @@ public final class LibraryClassTypeInfoManager implements ClassTypeInfoManager {
 			manager.releaseLock();
 		}
 
+		@Override
+		void acquireReadLock() {
+			acquireLock();
+		}
+
+		@Override
+		void releaseReadLock() {
+			releaseLock();
+		}
+
 		@Override
 		ClassTypeInfoManagerPlugin getPlugin() {
 			return manager.getPlugin();
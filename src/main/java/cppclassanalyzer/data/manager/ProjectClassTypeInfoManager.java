@@ -39,6 +39,7 @@ import ghidra.util.exception.VersionException;
 import ghidra.util.task.CancelOnlyWrappingTaskMonitor;
 import ghidra.util.task.TaskMonitor;
 
+import cppclassanalyzer.database.SchemaMismatchException;
 import cppclassanalyzer.database.schema.ArchivedClassTypeInfoSchema;
 import cppclassanalyzer.database.schema.ArchivedGnuVtableSchema;
 import cppclassanalyzer.database.tables.ArchivedClassTypeInfoDatabaseTable;
@@ -115,7 +116,11 @@ public final class ProjectClassTypeInfoManager extends ProjectDataTypeManager
 			throws IOException {
 		acquireLock();
 		try {
-			return new ArchivedClassTypeInfoDatabaseTable(dbHandle.getTable(name));
+			Table table = RttiTableUpgraders.ARCHIVED_CLASS_TABLE.open(dbHandle, name);
+			if (table == null) {
+				throw new SchemaMismatchException(ArchivedClassTypeInfoDatabaseTable.class);
+			}
+			return new ArchivedClassTypeInfoDatabaseTable(table);
 		} finally {
 			releaseLock();
 		}
@@ -125,7 +130,11 @@ public final class ProjectClassTypeInfoManager extends ProjectDataTypeManager
 			throws IOException {
 		acquireLock();
 		try {
-			return new ArchivedGnuVtableDatabaseTable(dbHandle.getTable(name));
+			Table table = RttiTableUpgraders.ARCHIVED_VTABLE_TABLE.open(dbHandle, name);
+			if (table == null) {
+				throw new SchemaMismatchException(ArchivedGnuVtableDatabaseTable.class);
+			}
+			return new ArchivedGnuVtableDatabaseTable(table);
 		} finally {
 			releaseLock();
 		}
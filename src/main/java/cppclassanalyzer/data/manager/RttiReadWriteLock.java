@@ -0,0 +1,63 @@
+package cppclassanalyzer.data.manager;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import ghidra.util.exception.AssertException;
+
+/**
+ * A reentrant reader/writer lock for the records and caches of a ClassTypeInfoManager.
+ * <p>
+ * Any number of readers may hold the lock at once while a writer has exclusive access.
+ * The writer may also acquire the read lock but a reader may never be upgraded to
+ * a writer, as two upgrading readers would deadlock.
+ */
+final class RttiReadWriteLock {
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Acquires the exclusive write lock
+	 * @throws AssertException if the current thread only holds the read lock
+	 */
+	void acquire() {
+		if (lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+			throw new AssertException(
+				"Ghidra-Cpp-Class-Analyzer: a read lock cannot be upgraded to a write lock");
+		}
+		lock.writeLock().lock();
+	}
+
+	/**
+	 * Releases the exclusive write lock
+	 */
+	void release() {
+		lock.writeLock().unlock();
+	}
+
+	/**
+	 * Acquires the shared read lock
+	 */
+	void acquireRead() {
+		lock.readLock().lock();
+	}
+
+	/**
+	 * Releases the shared read lock
+	 */
+	void releaseRead() {
+		lock.readLock().unlock();
+	}
+
+	/**
+	 * Acquires the exclusive write lock only if no other thread holds the lock
+	 * @return true if the lock was acquired
+	 * @throws AssertException if the current thread only holds the read lock
+	 */
+	boolean tryAcquire() {
+		if (lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+			throw new AssertException(
+				"Ghidra-Cpp-Class-Analyzer: a read lock cannot be upgraded to a write lock");
+		}
+		return lock.writeLock().tryLock();
+	}
+}
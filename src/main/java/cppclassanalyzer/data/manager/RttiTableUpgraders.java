@@ -0,0 +1,36 @@
+package cppclassanalyzer.data.manager;
+
+import cppclassanalyzer.database.schema.ArchivedClassTypeInfoSchema;
+import cppclassanalyzer.database.schema.ArchivedGnuVtableSchema;
+import cppclassanalyzer.database.schema.ClassTypeInfoSchema;
+import cppclassanalyzer.database.schema.VtableSchema;
+import cppclassanalyzer.database.upgrade.TableUpgrader;
+
+/**
+ * The upgraders for the tables of the class type info managers.
+ * An adapter must be added here for the previous version whenever a schema changes.
+ */
+final class RttiTableUpgraders {
+
+	static final TableUpgrader CLASS_TABLE = new TableUpgrader(
+		ClassTypeInfoSchema.SCHEMA,
+		ClassTypeInfoSchema.INDEXED_COLUMNS,
+		new ClassTypeInfoAdapterV1(),
+		new ClassTypeInfoAdapterV0());
+
+	static final TableUpgrader VTABLE_TABLE = new TableUpgrader(
+		VtableSchema.SCHEMA,
+		VtableSchema.INDEXED_COLUMNS,
+		new VtableAdapterV0());
+
+	static final TableUpgrader ARCHIVED_CLASS_TABLE = new TableUpgrader(
+		ArchivedClassTypeInfoSchema.SCHEMA,
+		ArchivedClassTypeInfoSchema.INDEXED_COLUMNS);
+
+	static final TableUpgrader ARCHIVED_VTABLE_TABLE = new TableUpgrader(
+		ArchivedGnuVtableSchema.SCHEMA,
+		ArchivedGnuVtableSchema.INDEXED_COLUMNS);
+
+	private RttiTableUpgraders() {
+	}
+}
@@ -16,6 +16,7 @@ import ghidra.program.model.data.Structure;
 import ghidra.program.model.listing.Program;
 import ghidra.program.model.mem.MemBuffer;
 import ghidra.app.cmd.data.rtti.TypeInfo;
+import ghidra.app.cmd.data.rtti.gcc.TypeInfoStringCache;
 import ghidra.app.cmd.data.rtti.gcc.TypeInfoUtils;
 import ghidra.app.cmd.data.rtti.gcc.typeinfo.*;
 
@@ -124,7 +125,7 @@ class TypeInfoFactory {
 	 * or null if none exists.
 	 */
 	static TypeInfo getTypeInfo(Program program, Address address) {
-			String baseTypeName = TypeInfoUtils.getIDString(program, address);
+			String baseTypeName = TypeInfoStringCache.getIDString(program, address);
 			if (!COPY_MAP.containsKey(baseTypeName)) {
 				// invalid typeinfo
 				return null;
@@ -154,8 +155,8 @@ class TypeInfoFactory {
 	 */
 	static boolean isTypeInfo(Program program, Address address) {
 		try {
-			if (COPY_MAP.containsKey(TypeInfoUtils.getIDString(program, address))) {
-				return !TypeInfoUtils.getTypeName(program, address).isBlank();
+			if (COPY_MAP.containsKey(TypeInfoStringCache.getIDString(program, address))) {
+				return !TypeInfoStringCache.getTypeName(program, address).isBlank();
 			}
 		} catch (AddressOutOfBoundsException e) {
 			return false;
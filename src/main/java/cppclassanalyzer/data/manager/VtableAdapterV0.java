@@ -0,0 +1,21 @@
+package cppclassanalyzer.data.manager;
+
+import cppclassanalyzer.database.schema.VtableSchema;
+import cppclassanalyzer.database.schema.fields.VtableSchemaFields;
+import cppclassanalyzer.database.upgrade.TableAdapter;
+
+/**
+ * Reads the vtable table records written before the class column was indexed.
+ * The records are unchanged and the index is built as they are written.
+ */
+final class VtableAdapterV0 extends TableAdapter {
+
+	VtableAdapterV0() {
+		super(0, VtableSchemaFields.values().length);
+	}
+
+	@Override
+	public db.Record translate(db.Record oldRecord) {
+		return copyRecord(VtableSchema.SCHEMA, oldRecord);
+	}
+}
@@ -1,23 +1,33 @@
 package cppclassanalyzer.data.manager.caches;
 
-import ghidra.program.database.DBObjectCache;
 import ghidra.program.database.DatabaseObject;
 
 public abstract class RttiCachePair<T1 extends DatabaseObject, T2 extends DatabaseObject>  {
 
-	private final DBObjectCache<T1> classCache;
-	private final DBObjectCache<T2> vtableCache;
+	/** The capacity which sizes the caches from their table sizes and the available heap */
+	public static final int ADAPTIVE_CAPACITY = 0;
+
+	// rough upper bound of the memory retained by a single cached type or vtable
+	private static final long ESTIMATED_OBJECT_SIZE = 4096;
+	// the portion of the maximum heap the hard cached objects may occupy
+	private static final int HEAP_FRACTION = 32;
+
+	private final RttiObjectCache<T1> classCache;
+	private final RttiObjectCache<T2> vtableCache;
+	private final int minimumCapacity;
+	private volatile int capacity = ADAPTIVE_CAPACITY;
 
 	RttiCachePair(int capacity) {
-		this.classCache = new DBObjectCache<>(capacity);
-		this.vtableCache = new DBObjectCache<>(capacity);
+		this.classCache = new RttiObjectCache<>(capacity);
+		this.vtableCache = new RttiObjectCache<>(capacity);
+		this.minimumCapacity = capacity;
 	}
 
-	public final DBObjectCache<T1> getTypeCache() {
+	public final RttiObjectCache<T1> getTypeCache() {
 		return classCache;
 	}
 
-	public final DBObjectCache<T2> getVtableCache() {
+	public final RttiObjectCache<T2> getVtableCache() {
 		return vtableCache;
 	}
 
@@ -25,4 +35,57 @@ public abstract class RttiCachePair<T1 extends DatabaseObject, T2 extends Databa
 		classCache.invalidate();
 		vtableCache.invalidate();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Sets the capacity of both caches
+	 * @param capacity the fixed capacity or {@link #ADAPTIVE_CAPACITY}
+	 * @param typeCount the number of type records
+	 * @param vtableCount the number of vtable records
+	 */
+	public final void setCapacity(int capacity, int typeCount, int vtableCount) {
+		this.capacity = Math.max(ADAPTIVE_CAPACITY, capacity);
+		if (this.capacity != ADAPTIVE_CAPACITY) {
+			classCache.setCapacity(this.capacity);
+			vtableCache.setCapacity(this.capacity);
+		} else {
+			classCache.setCapacity(getAdaptiveCapacity(typeCount));
+			vtableCache.setCapacity(getAdaptiveCapacity(vtableCount));
+		}
+	}
+
+	/**
+	 * Grows adaptive caches which can no longer hold every record of their table
+	 * @param typeCount the number of type records
+	 * @param vtableCount the number of vtable records
+	 */
+	public final void adapt(int typeCount, int vtableCount) {
+		if (capacity != ADAPTIVE_CAPACITY) {
+			return;
+		}
+		adapt(classCache, typeCount);
+		adapt(vtableCache, vtableCount);
+	}
+
+	private void adapt(RttiObjectCache<?> cache, int count) {
+		int current = cache.getCapacity();
+		if (count > current && current < getMaximumCapacity()) {
+			// grow geometrically so a growing table does not resize on every insert
+			long size = Math.max((long) count, (long) current << 1);
+			cache.setCapacity(getAdaptiveCapacity((int) Math.min(Integer.MAX_VALUE, size)));
+		}
+	}
+
+	private int getAdaptiveCapacity(int count) {
+		return Math.max(minimumCapacity, Math.min(count, getMaximumCapacity()));
+	}
+
+	private int getMaximumCapacity() {
+		long limit = Runtime.getRuntime().maxMemory() / HEAP_FRACTION / ESTIMATED_OBJECT_SIZE;
+		return (int) Math.max(minimumCapacity, Math.min(Integer.MAX_VALUE, limit));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("types: [%s], vtables: [%s]", classCache, vtableCache);
+	}
+}
@@ -0,0 +1,141 @@
+package cppclassanalyzer.data.manager.caches;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import ghidra.program.database.DBObjectCache;
+import ghidra.program.database.DatabaseObject;
+import ghidra.util.datastruct.LongIntHashtable;
+
+/**
+ * A {@link DBObjectCache} with a resizable hard cache which counts its
+ * hits, misses and evictions.
+ * <p>
+ * An eviction is counted when an object which was previously built has to be built
+ * again because it was dropped from the hard cache and collected.
+ */
+public final class RttiObjectCache<T extends DatabaseObject> extends DBObjectCache<T> {
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongIntHashtable built = new LongIntHashtable();
+	private int capacity;
+
+	RttiObjectCache(int capacity) {
+		super(capacity);
+		this.capacity = capacity;
+	}
+
+	@Override
+	public T get(long key) {
+		return count(super.get(key));
+	}
+
+	@Override
+	public T get(db.Record objectRecord) {
+		return count(super.get(objectRecord));
+	}
+
+	private T count(T result) {
+		if (result != null) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the cached object without counting the lookup.
+	 * Used to check the cache again after a counted miss.
+	 * @param objectRecord the object's record
+	 * @return the cached object or null
+	 */
+	public T getUncounted(db.Record objectRecord) {
+		return super.get(objectRecord);
+	}
+
+	/**
+	 * Notifies the cache that the object for the key has been built after a miss
+	 * @param key the object key
+	 */
+	public void objectBuilt(long key) {
+		synchronized (built) {
+			if (built.contains(key)) {
+				evictions.increment();
+			} else {
+				built.put(key, 0);
+			}
+		}
+	}
+
+	@Override
+	public void invalidate() {
+		super.invalidate();
+		synchronized (built) {
+			// the keys may be reassigned so a rebuilt object is not an eviction
+			built.removeAll();
+		}
+	}
+
+	/**
+	 * Gets the number of objects protected from garbage collection
+	 * @return the hard cache capacity
+	 */
+	public synchronized int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Sets the number of objects protected from garbage collection
+	 * @param capacity the hard cache capacity
+	 */
+	public synchronized void setCapacity(int capacity) {
+		if (this.capacity != capacity) {
+			setHardCacheSize(capacity);
+			this.capacity = capacity;
+		}
+	}
+
+	/**
+	 * Gets the number of lookups which found a cached object
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the number of lookups which did not find a cached object
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the number of misses for objects which had already been built
+	 * @return the eviction count
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Resets the hit, miss and eviction counters
+	 */
+	public void resetStatistics() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+		synchronized (built) {
+			built.removeAll();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("capacity: %d, hits: %d, misses: %d, evictions: %d",
+			getCapacity(), getHitCount(), getMissCount(), getEvictionCount());
+	}
+}
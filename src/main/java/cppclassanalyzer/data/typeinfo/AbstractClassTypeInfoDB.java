@@ -1,6 +1,7 @@
 package cppclassanalyzer.data.typeinfo;
 
 import java.util.*;
+import java.util.function.Function;
 
 import cppclassanalyzer.data.manager.ClassTypeInfoManagerDB;
 import cppclassanalyzer.data.manager.recordmanagers.ProgramRttiRecordManager;
@@ -40,8 +41,10 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 	protected final ProgramRttiRecordManager manager;
 	private final Address address;
 	private final String typename;
+	private TypeId typeId;
 	private boolean vtableSearched;
 	private long vtableKey;
+	private long dataTypeId;
 	private Structure struct;
 
 	protected AbstractClassTypeInfoDB(ProgramRttiRecordManager manager,
@@ -50,8 +53,10 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 		this.manager = manager;
 		this.address = getManager().decodeAddress(record.getLongValue(ADDRESS));
 		this.typename = record.getStringValue(TYPENAME);
+		this.typeId = TypeId.decode(record.getByteValue(TYPEINFO_ID));
 		this.vtableSearched = record.getBooleanValue(VTABLE_SEARCHED);
 		this.vtableKey = record.getLongValue(VTABLE_KEY);
+		this.dataTypeId = record.getLongValue(DATATYPE_ID);
 		this.struct = fetchDataType(record);
 		fillModelData(record);
 	}
@@ -90,8 +95,10 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 		record.setStringValue(TYPENAME, typename);
 		record.setLongValue(ADDRESS, encodeAddress(address));
 		manager.updateRecord(record);
-		record.setByteValue(TYPEINFO_ID, type.getClassId());
-		record.setLongValue(DATATYPE_ID, struct.getUniversalID().getValue());
+		this.typeId = TypeId.decode(type.getClassId());
+		this.dataTypeId = struct.getUniversalID().getValue();
+		record.setByteValue(TYPEINFO_ID, typeId.encode());
+		record.setLongValue(DATATYPE_ID, dataTypeId);
 		this.vtableSearched = true;
 		record.setBooleanValue(VTABLE_SEARCHED, vtableSearched);
 		record.setLongValue(VTABLE_KEY, vtableKey);
@@ -99,16 +106,21 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 	}
 
 	private void setRecord(ClassTypeInfo type, ClassTypeInfoRecord record) {
+		this.typeId = TypeId.decode(TypeId.encode(type));
+		this.dataTypeId = INVALID_KEY;
 		record.setStringValue(TYPENAME, type.getTypeName());
-		record.setByteValue(TYPEINFO_ID, TypeId.encode(type));
+		record.setByteValue(TYPEINFO_ID, typeId.encode());
 		record.setLongValue(ADDRESS, encodeAddress(type.getAddress()));
-		record.setLongValue(DATATYPE_ID, INVALID_KEY);
+		record.setLongValue(DATATYPE_ID, dataTypeId);
 		Vtable vtable = type.getVtable();
 		if (Vtable.isValid(vtable)) {
 			this.vtableSearched = true;
 			vtable = manager.resolve(vtable);
 			((AbstractVtableDB) vtable).setClassKey(key);
 			vtableKey = ((DatabaseObject) vtable).getKey();
+			// assigning a vtable completes the search for it
+			vtableSearched = true;
+			record.setBooleanValue(VTABLE_SEARCHED, true);
 		} else {
 			this.vtableSearched = false;
 			this.vtableKey = -1;
@@ -179,8 +191,7 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 	}
 
 	protected boolean getVtableSearched() {
-		ClassTypeInfoRecord record = getRecord();
-		return record.getBooleanValue(VTABLE_SEARCHED);
+		return vtableSearched;
 	}
 
 	public static int getBaseCount(ClassTypeInfoRecord record) {
@@ -225,8 +236,50 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 		}
 	}
 
+	/**
+	 * Gets the offsets of the bases in the record's model data.
+	 * The offsets are in the same order as the keys from {@link #getBaseKeys(ClassTypeInfoRecord)}.
+	 * @param record the type record
+	 * @return the base offsets or an empty array if they are not yet known
+	 */
+	public static int[] getBaseOffsets(ClassTypeInfoRecord record) {
+		byte id = record.getByteValue(TYPEINFO_ID);
+		switch (TypeId.decode(id)) {
+			case CLASS:
+			case SI_CLASS:
+			case VMI_CLASS:
+				return GnuClassTypeInfoDB.getBaseOffsets(record);
+			case RTTI_MODEL_WRAPPER:
+				return VsClassTypeInfoDB.getBaseOffsets(record);
+			default:
+				// impossible but javac complains for some reason
+				throw new AssertException("Ghidra-Cpp-Class-Analyzer: invalid database record");
+		}
+	}
+
+	/**
+	 * Gets the keys of the virtual bases in the record's model data
+	 * @param record the type record
+	 * @return the virtual base keys or an empty array if they are not recorded
+	 */
+	public static long[] getVirtualBaseKeys(ClassTypeInfoRecord record) {
+		byte id = record.getByteValue(TYPEINFO_ID);
+		switch (TypeId.decode(id)) {
+			case CLASS:
+			case SI_CLASS:
+			case VMI_CLASS:
+				return GnuClassTypeInfoDB.getVirtualBaseKeys(record);
+			case RTTI_MODEL_WRAPPER:
+				// the virtual inheritance is only available from the rtti models
+				return new long[0];
+			default:
+				// impossible but javac complains for some reason
+				throw new AssertException("Ghidra-Cpp-Class-Analyzer: invalid database record");
+		}
+	}
+
 	public TypeId getTypeId() {
-		return TypeId.decode(getRecord().getByteValue(TYPEINFO_ID));
+		return typeId;
 	}
 
 	protected static void updateKeys(long[] keys, LongIntHashtable keyMap) {
@@ -253,6 +306,23 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 		}
 	}
 
+	/**
+	 * Re-encodes the record's model data if it was written in an older format
+	 * @param record the type record
+	 * @return true if the record was changed
+	 */
+	public static boolean upgradeRecord(ClassTypeInfoRecord record) {
+		byte id = record.getByteValue(TYPEINFO_ID);
+		switch (TypeId.decode(id)) {
+			case CLASS:
+			case SI_CLASS:
+			case VMI_CLASS:
+				return GnuClassTypeInfoDB.upgradeRecord(record);
+			default:
+				return false;
+		}
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (o instanceof ClassTypeInfo) {
@@ -293,8 +363,10 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 		}
 		Address addr = getManager().decodeAddress(record.getLongValue(ADDRESS));
 		if (address.equals(addr)) {
+			typeId = TypeId.decode(record.getByteValue(TYPEINFO_ID));
 			vtableSearched = record.getBooleanValue(VTABLE_SEARCHED);
 			vtableKey = record.getLongValue(VTABLE_KEY);
+			dataTypeId = record.getLongValue(DATATYPE_ID);
 			struct = fetchDataType(record);
 			return true;
 		}
@@ -332,22 +404,12 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 
 	@Override
 	public String getIdentifier() {
-		ClassTypeInfoRecord record = getRecord();
-		byte id = record.getByteValue(TYPEINFO_ID);
-		return TypeId.decode(id).getIdentifier();
+		return typeId.getIdentifier();
 	}
 
 	@Override
 	public DataType getDataType() {
-		ClassTypeInfoRecord record = getRecord();
-		byte id = record.getByteValue(TYPEINFO_ID);
-		try {
-			return (DataType) TypeId.decode(id).clazz
-				.getDeclaredMethod("getDataType", DataTypeManager.class)
-				.invoke(null, getProgram().getDataTypeManager());
-		} catch (Exception e) {
-			throw new AssertException("Ghidra-Cpp-Class-Analyzer: ", e);
-		}
+		return typeId.getDataType(getProgram().getDataTypeManager());
 	}
 
 	@Override
@@ -372,9 +434,12 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 				((AbstractVtableDB) vtable).setClassKey(key);
 			}
 			vtableKey = ((DatabaseObject) vtable).getKey();
+			// a type with an assigned vtable never needs to be searched again
+			vtableSearched = true;
 		} else {
 			vtableKey = -1;
 		}
+		record.setBooleanValue(VTABLE_SEARCHED, vtableSearched);
 		record.setLongValue(VTABLE_KEY, vtableKey);
 		fillModelData(record);
 		manager.updateRecord(record);
@@ -382,13 +447,10 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 
 	@Override
 	public Structure getClassDataType() {
-		ClassTypeInfoRecord record = getRecord();
 		if (struct != null) {
 			if (!ClassTypeInfoUtils.isPlaceholder(struct)) {
-				long dtKey = record.getLongValue(DATATYPE_ID);
-				if (dtKey == INVALID_KEY) {
-					record.setLongValue(DATATYPE_ID, struct.getUniversalID().getValue());
-					manager.updateRecord(record);
+				if (dataTypeId == INVALID_KEY) {
+					setDataTypeId(struct);
 				}
 				return struct;
 			}
@@ -398,10 +460,15 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 	}
 
 	public void refreshDataType() {
-		ClassTypeInfoRecord record = getRecord();
 		AbstractCppClassBuilder builder = getClassBuilder();
 		struct = builder.getDataType();
-		record.setLongValue(DATATYPE_ID, struct.getUniversalID().getValue());
+		setDataTypeId(struct);
+	}
+
+	private void setDataTypeId(Structure struct) {
+		ClassTypeInfoRecord record = getRecord();
+		dataTypeId = struct.getUniversalID().getValue();
+		record.setLongValue(DATATYPE_ID, dataTypeId);
 		manager.updateRecord(record);
 	}
 
@@ -411,15 +478,12 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 				ClassTypeInfoUtils.getPlaceholderStruct(this, getProgram().getDataTypeManager());
 		}
 		this.struct.replaceWith(struct);
-		ClassTypeInfoRecord record = getRecord();
-		record.setLongValue(DATATYPE_ID, this.struct.getUniversalID().getValue());
-		manager.updateRecord(record);
+		setDataTypeId(this.struct);
 	}
 
 	@Override
 	public long getClassDataTypeId() {
-		ClassTypeInfoRecord record = getRecord();
-		return record.getLongValue(DATATYPE_ID);
+		return dataTypeId;
 	}
 
 	@Override
@@ -438,15 +502,23 @@ public abstract class AbstractClassTypeInfoDB extends ClassTypeInfoDB {
 	}
 
 	public static enum TypeId {
-		CLASS(ClassTypeInfoModel.class),
-		SI_CLASS(SiClassTypeInfoModel.class),
-		VMI_CLASS(VmiClassTypeInfoModel.class),
-		RTTI_MODEL_WRAPPER(RttiModelWrapper.class);
+		CLASS(ClassTypeInfoModel.class, ClassTypeInfoModel::getDataType),
+		SI_CLASS(SiClassTypeInfoModel.class, SiClassTypeInfoModel::getDataType),
+		VMI_CLASS(VmiClassTypeInfoModel.class, VmiClassTypeInfoModel::getDataType),
+		// the windows rtti models have no typeinfo data type of their own
+		RTTI_MODEL_WRAPPER(RttiModelWrapper.class, dtm -> null);
 
 		private final Class<? extends ClassTypeInfo> clazz;
+		private final Function<DataTypeManager, DataType> dataType;
 
-		private TypeId(Class<? extends ClassTypeInfo> clazz) {
+		private TypeId(Class<? extends ClassTypeInfo> clazz,
+				Function<DataTypeManager, DataType> dataType) {
 			this.clazz = clazz;
+			this.dataType = dataType;
+		}
+
+		private DataType getDataType(DataTypeManager dtm) {
+			return dataType.apply(dtm);
 		}
 
 		public String getIdentifier() {
@@ -2,7 +2,6 @@ package cppclassanalyzer.data.typeinfo;
 
 import static cppclassanalyzer.database.schema.fields.ClassTypeInfoSchemaFields.*;
 
-import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -72,22 +71,12 @@ public class GnuClassTypeInfoDB extends AbstractClassTypeInfoDB {
 	}
 
 	private void fillRecord(ClassTypeInfoRecord record) {
-		ByteBuffer buf = ByteBuffer.allocate(getSize());
-		ClassTypeInfoRecord.setLongArray(buf, nonVirtualBaseKeys);
-		ClassTypeInfoRecord.setLongArray(buf, virtualBaseKeys);
-		ClassTypeInfoRecord.setLongArray(buf, baseKeys);
-		ClassTypeInfoRecord.setIntArray(buf, baseOffsets);
-		record.setBinaryData(MODEL_DATA, buf.array());
+		GnuModelData data =
+			new GnuModelData(nonVirtualBaseKeys, virtualBaseKeys, baseKeys, baseOffsets);
+		record.setBinaryData(MODEL_DATA, data.encode());
 		manager.updateRecord(record);
 	}
 
-	private int getSize() {
-		return ClassTypeInfoRecord.getArraySize(nonVirtualBaseKeys)
-			+ ClassTypeInfoRecord.getArraySize(virtualBaseKeys)
-			+ ClassTypeInfoRecord.getArraySize(baseKeys)
-			+ ClassTypeInfoRecord.getArraySize(baseOffsets);
-	}
-
 	@Override
 	public boolean hasParent() {
 		return nonVirtualBaseKeys.length > 0 || virtualBaseKeys.length > 0;
@@ -124,31 +113,49 @@ public class GnuClassTypeInfoDB extends AbstractClassTypeInfoDB {
 	}
 
 	public static long[] getBaseKeys(ClassTypeInfoRecord record) {
-		ByteBuffer buf = ByteBuffer.wrap(getClassData(record));
-		long[] nonVirtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
-		long[] virtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
-		return LongStream.concat(
-			LongStream.of(nonVirtualBaseKeys),
-			LongStream.of(virtualBaseKeys)).toArray();
+		return GnuModelData.decodeParentKeys(getClassData(record));
 	}
 
 	public static int getBaseCount(ClassTypeInfoRecord record) {
-		ByteBuffer buf = ByteBuffer.wrap(getClassData(record));
-		long[] nonVirtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
-		long[] virtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
-		return nonVirtualBaseKeys.length + virtualBaseKeys.length;
+		return getBaseKeys(record).length;
+	}
+
+	public static long[] getVirtualBaseKeys(ClassTypeInfoRecord record) {
+		return GnuModelData.decode(getClassData(record)).virtualBaseKeys;
+	}
+
+	public static int[] getBaseOffsets(ClassTypeInfoRecord record) {
+		GnuModelData data = GnuModelData.decode(getClassData(record));
+		int count = data.nonVirtualBaseKeys.length + data.virtualBaseKeys.length;
+		if (data.baseKeys.length != count || data.baseOffsets.length != count) {
+			// the offsets are filled in once the vtable has been searched
+			return new int[0];
+		}
+		return data.baseOffsets;
 	}
 
 	public static void updateRecord(ClassTypeInfoRecord record, LongIntHashtable keyMap) {
-		ByteBuffer buf = ByteBuffer.wrap(getClassData(record));
-		long[] nonVirtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
-		long[] virtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
-		updateKeys(nonVirtualBaseKeys, keyMap);
-		updateKeys(virtualBaseKeys, keyMap);
-		buf = ByteBuffer.allocate(buf.array().length);
-		ClassTypeInfoRecord.setLongArray(buf, nonVirtualBaseKeys);
-		ClassTypeInfoRecord.setLongArray(buf, virtualBaseKeys);
-		record.setBinaryData(MODEL_DATA, buf.array());
+		GnuModelData data = GnuModelData.decode(getClassData(record));
+		updateKeys(data.nonVirtualBaseKeys, keyMap);
+		updateKeys(data.virtualBaseKeys, keyMap);
+		// the base offsets are recomputed for the remapped bases
+		data = new GnuModelData(
+			data.nonVirtualBaseKeys, data.virtualBaseKeys, new long[0], new int[0]);
+		record.setBinaryData(MODEL_DATA, data.encode());
+	}
+
+	/**
+	 * Re-encodes model data written in the legacy fixed width format
+	 * @param record the type record
+	 * @return true if the record was changed
+	 */
+	public static boolean upgradeRecord(ClassTypeInfoRecord record) {
+		byte[] bytes = record.getBinaryData(MODEL_DATA);
+		if (bytes == null || !GnuModelData.isLegacy(bytes)) {
+			return false;
+		}
+		record.setBinaryData(MODEL_DATA, GnuModelData.decode(bytes).encode());
+		return true;
 	}
 
 	@Override
@@ -176,13 +183,13 @@ public class GnuClassTypeInfoDB extends AbstractClassTypeInfoDB {
 
 	@Override
 	protected void fillModelData(ClassTypeInfoRecord record) {
-		byte[] data = getClassData(record);
-		if (data != null) {
-			ByteBuffer buf = ByteBuffer.wrap(data);
-			nonVirtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
-			virtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
-			baseKeys = ClassTypeInfoRecord.getLongArray(buf);
-			baseOffsets = ClassTypeInfoRecord.getIntArray(buf);
+		byte[] bytes = getClassData(record);
+		if (bytes != null) {
+			GnuModelData data = GnuModelData.decode(bytes);
+			nonVirtualBaseKeys = data.nonVirtualBaseKeys;
+			virtualBaseKeys = data.virtualBaseKeys;
+			baseKeys = data.baseKeys;
+			baseOffsets = data.baseOffsets;
 			if (nonVirtualBaseKeys.length == 0 && virtualBaseKeys.length == 0) {
 				return;
 			}
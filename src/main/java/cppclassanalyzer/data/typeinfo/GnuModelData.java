@@ -0,0 +1,215 @@
+package cppclassanalyzer.data.typeinfo;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import ghidra.util.exception.AssertException;
+
+import cppclassanalyzer.database.record.ClassTypeInfoRecord;
+
+/**
+ * The model data of a {@link GnuClassTypeInfoDB} record.
+ * <p>
+ * The data starts with a format byte followed by the non-virtual base keys,
+ * the virtual base keys, the base keys and the base offsets. Each array is stored as
+ * a varint length followed by its elements. A key is stored as the zig-zag varint
+ * of its difference from the previous key in the array and an offset as the
+ * zig-zag varint of its value. Most keys and offsets fit in one or two bytes.
+ * <p>
+ * The legacy data is a sequence of length prefixed big endian arrays. Its first byte
+ * is the high byte of the first array's length which is always zero, so it can never
+ * be mistaken for the format byte.
+ */
+final class GnuModelData {
+
+	private static final byte FORMAT = (byte) 0x81;
+	private static final int MAX_VARINT_BYTES = 10;
+
+	private static final long[] NO_KEYS = new long[0];
+	private static final int[] NO_OFFSETS = new int[0];
+
+	final long[] nonVirtualBaseKeys;
+	final long[] virtualBaseKeys;
+	final long[] baseKeys;
+	final int[] baseOffsets;
+
+	GnuModelData(long[] nonVirtualBaseKeys, long[] virtualBaseKeys, long[] baseKeys,
+			int[] baseOffsets) {
+		this.nonVirtualBaseKeys = nonVirtualBaseKeys;
+		this.virtualBaseKeys = virtualBaseKeys;
+		this.baseKeys = baseKeys;
+		this.baseOffsets = baseOffsets;
+	}
+
+	/**
+	 * Checks if the data is in the legacy fixed width format
+	 * @param data the model data
+	 * @return true if the data must be re-encoded
+	 */
+	static boolean isLegacy(byte[] data) {
+		return data.length == 0 || data[0] != FORMAT;
+	}
+
+	/**
+	 * Decodes the model data in either format
+	 * @param data the model data
+	 * @return the decoded model data
+	 */
+	static GnuModelData decode(byte[] data) {
+		if (isLegacy(data)) {
+			return decodeLegacy(data);
+		}
+		Reader reader = new Reader(data);
+		return new GnuModelData(
+			reader.readKeys(), reader.readKeys(), reader.readKeys(), reader.readOffsets());
+	}
+
+	/**
+	 * Decodes the base keys without decoding the rest of the data
+	 * @param data the model data
+	 * @return the non-virtual base keys followed by the virtual base keys
+	 */
+	static long[] decodeParentKeys(byte[] data) {
+		if (isLegacy(data)) {
+			return decodeLegacy(data).getParentKeys();
+		}
+		Reader reader = new Reader(data);
+		long[] nonVirtualBaseKeys = reader.readKeys();
+		long[] virtualBaseKeys = reader.readKeys();
+		return new GnuModelData(nonVirtualBaseKeys, virtualBaseKeys, NO_KEYS, NO_OFFSETS)
+			.getParentKeys();
+	}
+
+	private static GnuModelData decodeLegacy(byte[] data) {
+		ByteBuffer buf = ByteBuffer.wrap(data);
+		long[] nonVirtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
+		long[] virtualBaseKeys = ClassTypeInfoRecord.getLongArray(buf);
+		if (!buf.hasRemaining()) {
+			return new GnuModelData(nonVirtualBaseKeys, virtualBaseKeys, NO_KEYS, NO_OFFSETS);
+		}
+		long[] baseKeys = ClassTypeInfoRecord.getLongArray(buf);
+		int[] baseOffsets = ClassTypeInfoRecord.getIntArray(buf);
+		return new GnuModelData(nonVirtualBaseKeys, virtualBaseKeys, baseKeys, baseOffsets);
+	}
+
+	/**
+	 * Gets the non-virtual base keys followed by the virtual base keys
+	 * @return the parent keys
+	 */
+	long[] getParentKeys() {
+		long[] result = Arrays.copyOf(
+			nonVirtualBaseKeys, nonVirtualBaseKeys.length + virtualBaseKeys.length);
+		System.arraycopy(virtualBaseKeys, 0, result,
+			nonVirtualBaseKeys.length, virtualBaseKeys.length);
+		return result;
+	}
+
+	/**
+	 * Encodes the model data in the current format
+	 * @return the encoded model data
+	 */
+	byte[] encode() {
+		int keys = nonVirtualBaseKeys.length + virtualBaseKeys.length + baseKeys.length;
+		Writer writer =
+			new Writer(1 + MAX_VARINT_BYTES * (4 + keys + baseOffsets.length));
+		writer.data[writer.pos++] = FORMAT;
+		writer.writeKeys(nonVirtualBaseKeys);
+		writer.writeKeys(virtualBaseKeys);
+		writer.writeKeys(baseKeys);
+		writer.writeOffsets(baseOffsets);
+		return Arrays.copyOf(writer.data, writer.pos);
+	}
+
+	private static final class Reader {
+
+		private final byte[] data;
+		private int pos = 1;
+
+		Reader(byte[] data) {
+			this.data = data;
+		}
+
+		long[] readKeys() {
+			int length = (int) readVarLong();
+			if (length == 0) {
+				return NO_KEYS;
+			}
+			long[] keys = new long[length];
+			long key = 0;
+			for (int i = 0; i < length; i++) {
+				key += unZigZag(readVarLong());
+				keys[i] = key;
+			}
+			return keys;
+		}
+
+		int[] readOffsets() {
+			int length = (int) readVarLong();
+			if (length == 0) {
+				return NO_OFFSETS;
+			}
+			int[] offsets = new int[length];
+			for (int i = 0; i < length; i++) {
+				offsets[i] = (int) unZigZag(readVarLong());
+			}
+			return offsets;
+		}
+
+		private long readVarLong() {
+			long result = 0;
+			for (int shift = 0; shift < Long.SIZE; shift += 7) {
+				if (pos >= data.length) {
+					break;
+				}
+				byte b = data[pos++];
+				result |= (long) (b & 0x7f) << shift;
+				if (b >= 0) {
+					return result;
+				}
+			}
+			throw new AssertException("Ghidra-Cpp-Class-Analyzer: malformed model data");
+		}
+
+		private static long unZigZag(long value) {
+			return (value >>> 1) ^ -(value & 1);
+		}
+	}
+
+	private static final class Writer {
+
+		private final byte[] data;
+		private int pos;
+
+		Writer(int capacity) {
+			this.data = new byte[capacity];
+		}
+
+		void writeKeys(long[] keys) {
+			writeVarLong(keys.length);
+			long previous = 0;
+			for (long key : keys) {
+				writeVarLong(zigZag(key - previous));
+				previous = key;
+			}
+		}
+
+		void writeOffsets(int[] offsets) {
+			writeVarLong(offsets.length);
+			for (int offset : offsets) {
+				writeVarLong(zigZag(offset));
+			}
+		}
+
+		private void writeVarLong(long value) {
+			while ((value & ~0x7fL) != 0) {
+				data[pos++] = (byte) ((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			data[pos++] = (byte) value;
+		}
+
+		private static long zigZag(long value) {
+			return (value << 1) ^ (value >> 63);
+		}
+	}
+}
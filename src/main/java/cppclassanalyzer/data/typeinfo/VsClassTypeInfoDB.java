@@ -159,6 +159,12 @@ public class VsClassTypeInfoDB extends AbstractClassTypeInfoDB implements VsClas
 		return ClassTypeInfoRecord.getLongArray(buf).length;
 	}
 
+	public static int[] getBaseOffsets(ClassTypeInfoRecord record) {
+		ByteBuffer buf = ByteBuffer.wrap(getClassData(record));
+		ClassTypeInfoRecord.getLongArray(buf);
+		return ClassTypeInfoRecord.getIntArray(buf);
+	}
+
 	public static void updateRecord(ClassTypeInfoRecord record, LongIntHashtable keyMap) {
 		ByteBuffer buf = ByteBuffer.wrap(getClassData(record));
 		long[] baseKeys = ClassTypeInfoRecord.getLongArray(buf);
@@ -5,6 +5,7 @@ import static cppclassanalyzer.database.schema.fields.VtableSchemaFields.*;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -13,6 +14,7 @@ import ghidra.app.cmd.data.rtti.gcc.GnuUtils;
 import cppclassanalyzer.data.manager.ClassTypeInfoManagerDB;
 import cppclassanalyzer.data.manager.recordmanagers.ProgramRttiRecordManager;
 import cppclassanalyzer.data.vtable.ArchivedGnuVtable.ArchivedVtablePrefix;
+import ghidra.program.database.map.AddressMap;
 import ghidra.program.model.address.Address;
 import ghidra.program.model.data.ArrayDataType;
 import ghidra.program.model.data.DataType;
@@ -30,6 +32,8 @@ import cppclassanalyzer.database.record.DatabaseRecord.ByteConvertable;
 public final class VtableModelDB extends AbstractVtableDB implements GnuVtable {
 
 	private final VtableModelPrefixRecord[] records;
+	private volatile long[] sortedTargets;
+	private volatile FunctionTables functionTables;
 
 	public VtableModelDB(ProgramRttiRecordManager worker, VtableRecord record) {
 		super(worker, record);
@@ -90,11 +94,54 @@ public final class VtableModelDB extends AbstractVtableDB implements GnuVtable {
 
 	@Override
 	public Function[][] getFunctionTables() {
-		return Arrays.stream(records)
-				.map(VtableModelPrefixRecord::getFunctions)
+		return Arrays.stream(getCachedFunctionTables())
+				.map(Function[]::clone)
 				.toArray(Function[][]::new);
 	}
 
+	private Function[][] getCachedFunctionTables() {
+		long count = getManager().getFunctionModificationCount();
+		FunctionTables tables = functionTables;
+		if (tables == null || tables.modificationCount != count || tables.hasDeletedFunction()) {
+			tables = new FunctionTables(count, Arrays.stream(records)
+				.map(VtableModelPrefixRecord::getFunctions)
+				.toArray(Function[][]::new));
+			functionTables = tables;
+		}
+		return tables.functions;
+	}
+
+	private Function[] getCachedFunctions(VtableModelPrefixRecord record) {
+		Function[][] tables = getCachedFunctionTables();
+		for (int i = 0; i < records.length; i++) {
+			if (records[i] == record) {
+				return tables[i];
+			}
+		}
+		return record.getFunctions();
+	}
+
+	@Override
+	public boolean containsFunction(Function function) {
+		long key = getManager().getAddressKey(function.getEntryPoint());
+		if (key == AddressMap.INVALID_ADDRESS_KEY) {
+			return false;
+		}
+		return Arrays.binarySearch(getSortedTargets(), key) >= 0;
+	}
+
+	private long[] getSortedTargets() {
+		if (sortedTargets == null) {
+			// the slot targets never change so a racing initialization is harmless
+			long[] targets = Arrays.stream(records)
+				.flatMapToLong(r -> Arrays.stream(r.functions))
+				.toArray();
+			Arrays.sort(targets);
+			sortedTargets = targets;
+		}
+		return sortedTargets;
+	}
+
 	@Override
 	public List<DataType> getDataTypes() {
 		// 3 datatypes per prefix
@@ -121,6 +168,39 @@ public final class VtableModelDB extends AbstractVtableDB implements GnuVtable {
 		return List.of(records);
 	}
 
+	/**
+	 * The function tables resolved from the listing as of a function modification count.
+	 * The tables are never modified once published. A slot without a function remains
+	 * empty until the modification count changes and a new instance is published.
+	 */
+	private static final class FunctionTables {
+
+		private final long modificationCount;
+		private final Function[][] functions;
+
+		FunctionTables(long modificationCount, Function[][] functions) {
+			this.modificationCount = modificationCount;
+			this.functions = functions;
+		}
+
+		/**
+		 * Checks if any resolved function has been deleted. The events which update
+		 * the modification count are not delivered until the current transaction has
+		 * been flushed so a deleted function must be checked for directly.
+		 * @return true if a function in the tables has been deleted
+		 */
+		boolean hasDeletedFunction() {
+			for (Function[] table : functions) {
+				for (Function function : table) {
+					if (function != null && function.isDeleted()) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+
 	class VtableModelPrefixRecord implements VtablePrefix, ByteConvertable {
 		private final long address;
 		private final long[] offsets;
@@ -198,8 +278,8 @@ public final class VtableModelDB extends AbstractVtableDB implements GnuVtable {
 
 		@Override
 		public List<Function> getFunctionTable() {
-			// the array is regenerated each time. not required to be immutable
-			return Arrays.asList(getFunctions());
+			// the cached table is shared and must not be modified
+			return Collections.unmodifiableList(Arrays.asList(getCachedFunctions(this)));
 		}
 
 		@Override
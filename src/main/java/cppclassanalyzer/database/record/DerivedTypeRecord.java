@@ -0,0 +1,33 @@
+package cppclassanalyzer.database.record;
+
+import cppclassanalyzer.database.schema.DerivedTypeSchema;
+import cppclassanalyzer.database.schema.fields.DerivedTypeSchemaFields;
+import db.Field;
+import db.Schema;
+import db.Table;
+
+public final class DerivedTypeRecord extends AbstractDatabaseRecord<DerivedTypeSchemaFields> {
+
+	public DerivedTypeRecord(Field key, Table table) {
+		super(key, table);
+	}
+
+	public DerivedTypeRecord(Table table) {
+		super(table);
+	}
+
+	public DerivedTypeRecord(db.Record record) {
+		super(record);
+	}
+
+	@Override
+	public Schema getSchema() {
+		return DerivedTypeSchema.SCHEMA;
+	}
+
+	@Override
+	public DerivedTypeRecord copy() {
+		return new DerivedTypeRecord(getRecord().copy());
+	}
+
+}
@@ -0,0 +1,33 @@
+package cppclassanalyzer.database.record;
+
+import cppclassanalyzer.database.schema.VttSchema;
+import cppclassanalyzer.database.schema.fields.VttSchemaFields;
+import db.Field;
+import db.Schema;
+import db.Table;
+
+public final class VttRecord extends AbstractDatabaseRecord<VttSchemaFields> {
+
+	public VttRecord(Field key, Table table) {
+		super(key, table);
+	}
+
+	public VttRecord(Table table) {
+		super(table);
+	}
+
+	public VttRecord(db.Record record) {
+		super(record);
+	}
+
+	@Override
+	public Schema getSchema() {
+		return VttSchema.SCHEMA;
+	}
+
+	@Override
+	public VttRecord copy() {
+		return new VttRecord(getRecord().copy());
+	}
+
+}
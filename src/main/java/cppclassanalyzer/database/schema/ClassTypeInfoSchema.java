@@ -5,11 +5,12 @@ import cppclassanalyzer.database.schema.fields.ClassTypeInfoSchemaFields;
 
 public final class ClassTypeInfoSchema extends AbstractSchema<ClassTypeInfoRecord> {
 
-	private static final int VERSION = 0;
+	private static final int VERSION = 2;
 	public static final ClassTypeInfoSchema SCHEMA = new ClassTypeInfoSchema(VERSION);
 	public static final int[] INDEXED_COLUMNS = new int[] {
 		ClassTypeInfoSchemaFields.ADDRESS.ordinal(),
-		ClassTypeInfoSchemaFields.DATATYPE_ID.ordinal()
+		ClassTypeInfoSchemaFields.DATATYPE_ID.ordinal(),
+		ClassTypeInfoSchemaFields.RANK.ordinal()
 	};
 
 	private ClassTypeInfoSchema(int version) {
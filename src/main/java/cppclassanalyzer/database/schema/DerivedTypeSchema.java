@@ -0,0 +1,30 @@
+package cppclassanalyzer.database.schema;
+
+import cppclassanalyzer.database.record.DerivedTypeRecord;
+import cppclassanalyzer.database.schema.fields.DerivedTypeSchemaFields;
+
+/**
+ * Schema for the inheritance edges of a program. Each record links a type
+ * to one of its direct bases.
+ */
+public final class DerivedTypeSchema extends AbstractSchema<DerivedTypeRecord> {
+
+	private static final int VERSION = 0;
+	public static final DerivedTypeSchema SCHEMA = new DerivedTypeSchema(VERSION);
+	public static final int[] INDEXED_COLUMNS = new int[] {
+		DerivedTypeSchemaFields.BASE.ordinal(),
+		DerivedTypeSchemaFields.DERIVED.ordinal()
+	};
+
+	private DerivedTypeSchema(int version) {
+		super(version, "Key",
+			DerivedTypeSchemaFields.getFields(),
+			DerivedTypeSchemaFields.getFieldNames());
+	}
+
+	@Override
+	public DerivedTypeRecord getRecord(db.Record record) {
+		return new DerivedTypeRecord(record);
+	}
+
+}
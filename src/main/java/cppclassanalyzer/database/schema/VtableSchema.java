@@ -5,10 +5,11 @@ import cppclassanalyzer.database.schema.fields.VtableSchemaFields;
 
 public final class VtableSchema extends AbstractSchema<VtableRecord> {
 
-	private static final int VERSION = 0;
+	private static final int VERSION = 1;
 	public static final VtableSchema SCHEMA = new VtableSchema(VERSION);
 	public static final int[] INDEXED_COLUMNS = new int[] {
-		VtableSchemaFields.ADDRESS.ordinal()
+		VtableSchemaFields.ADDRESS.ordinal(),
+		VtableSchemaFields.CLASS.ordinal()
 	};
 
 	private VtableSchema(int version) {
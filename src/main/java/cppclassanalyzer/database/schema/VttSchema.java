@@ -0,0 +1,28 @@
+package cppclassanalyzer.database.schema;
+
+import cppclassanalyzer.database.record.VttRecord;
+import cppclassanalyzer.database.schema.fields.VttSchemaFields;
+
+/**
+ * Schema for the VTTs of a program. Each record is keyed by the key of the class owning it.
+ */
+public final class VttSchema extends AbstractSchema<VttRecord> {
+
+	private static final int VERSION = 0;
+	public static final VttSchema SCHEMA = new VttSchema(VERSION);
+	public static final int[] INDEXED_COLUMNS = new int[] {
+		VttSchemaFields.ADDRESS.ordinal()
+	};
+
+	private VttSchema(int version) {
+		super(version, "Class Key",
+			VttSchemaFields.getFields(),
+			VttSchemaFields.getFieldNames());
+	}
+
+	@Override
+	public VttRecord getRecord(db.Record record) {
+		return new VttRecord(record);
+	}
+
+}
@@ -12,7 +12,8 @@ public enum ClassTypeInfoSchemaFields implements FieldEnum {
 	DATATYPE_ID(LongField.class),
 	VTABLE_SEARCHED(BooleanField.class),
 	VTABLE_KEY(LongField.class),
-	MODEL_DATA(BinaryField.class);
+	MODEL_DATA(BinaryField.class),
+	RANK(IntField.class);
 
 	private final Class<? extends Field> fieldClass;
 
@@ -0,0 +1,43 @@
+package cppclassanalyzer.database.tables;
+
+import java.io.IOException;
+
+import cppclassanalyzer.database.record.DerivedTypeRecord;
+import cppclassanalyzer.database.schema.DerivedTypeSchema;
+import db.Field;
+import db.Table;
+
+public class DerivedTypeDatabaseTable extends AbstractDatabaseTable<DerivedTypeSchema> {
+
+	public static final String TABLE_NAME = "Derived Type Table";
+
+	public DerivedTypeDatabaseTable(Table table) {
+		super(table);
+	}
+
+	@Override
+	public DerivedTypeSchema getSchema() {
+		return DerivedTypeSchema.SCHEMA;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public final DerivedTypeRecord getRecord(long key) throws IOException {
+		db.Record record = getRawRecord(key);
+		if (record != null) {
+			return DerivedTypeSchema.SCHEMA.getRecord(record);
+		}
+		return null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public DerivedTypeRecord getRecord(Field key) throws IOException {
+		db.Record record = getRawRecord(key);
+		if (record != null) {
+			return DerivedTypeSchema.SCHEMA.getRecord(record);
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,43 @@
+package cppclassanalyzer.database.tables;
+
+import java.io.IOException;
+
+import cppclassanalyzer.database.record.VttRecord;
+import cppclassanalyzer.database.schema.VttSchema;
+import db.Field;
+import db.Table;
+
+public class VttDatabaseTable extends AbstractDatabaseTable<VttSchema> {
+
+	public static final String TABLE_NAME = "VTT Table";
+
+	public VttDatabaseTable(Table table) {
+		super(table);
+	}
+
+	@Override
+	public VttSchema getSchema() {
+		return VttSchema.SCHEMA;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public final VttRecord getRecord(long key) throws IOException {
+		db.Record record = getRawRecord(key);
+		if (record != null) {
+			return VttSchema.SCHEMA.getRecord(record);
+		}
+		return null;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public VttRecord getRecord(Field key) throws IOException {
+		db.Record record = getRawRecord(key);
+		if (record != null) {
+			return VttSchema.SCHEMA.getRecord(record);
+		}
+		return null;
+	}
+
+}
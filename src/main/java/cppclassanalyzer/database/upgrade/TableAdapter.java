@@ -0,0 +1,78 @@
+package cppclassanalyzer.database.upgrade;
+
+import java.io.IOException;
+
+import db.Table;
+
+/**
+ * An adapter for the records of a table written with an older version of its schema.
+ * <p>
+ * Each adapter translates the records of the version it was written for directly
+ * into records of the current schema, in the same way as Ghidra's own
+ * {@code DBAdapterV0}, {@code DBAdapterV1}, ... classes. When the current schema
+ * changes, a new adapter is added for the previous version and the existing adapters
+ * are updated to produce the new current records.
+ */
+public abstract class TableAdapter {
+
+	private final int version;
+	private final int fieldCount;
+
+	/**
+	 * Constructs a new TableAdapter
+	 * @param version the schema version this adapter reads
+	 * @param fieldCount the number of fields in the schema this adapter reads
+	 */
+	protected TableAdapter(int version, int fieldCount) {
+		this.version = version;
+		this.fieldCount = fieldCount;
+	}
+
+	/**
+	 * Checks if this adapter can read records of the specified schema
+	 * @param schema the schema of the existing table
+	 * @return true if this adapter can read the schema's records
+	 */
+	public final boolean canRead(db.Schema schema) {
+		return schema.getVersion() == version && schema.getFieldNames().length == fieldCount;
+	}
+
+	/**
+	 * Gets the schema version this adapter reads
+	 * @return the schema version
+	 */
+	public final int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Translates a record of the old schema into a record of the current schema
+	 * @param oldRecord the old record
+	 * @return the translated record with the same key
+	 */
+	public abstract db.Record translate(db.Record oldRecord);
+
+	/**
+	 * Completes the upgrade once every translated record has been written.
+	 * This is used for derived values which depend on more than one record.
+	 * @param table the upgraded table
+	 * @throws IOException if an error occurs updating the table
+	 */
+	public void complete(Table table) throws IOException {
+	}
+
+	/**
+	 * Copies the fields of the old record into a new record of the current schema.
+	 * The fields appended since the old version keep their default values.
+	 * @param schema the current schema
+	 * @param oldRecord the old record
+	 * @return the new record
+	 */
+	protected static db.Record copyRecord(db.Schema schema, db.Record oldRecord) {
+		db.Record record = schema.createRecord(oldRecord.getKey());
+		for (int i = 0; i < oldRecord.getColumnCount(); i++) {
+			record.setField(i, oldRecord.getFieldValue(i));
+		}
+		return record;
+	}
+}
@@ -0,0 +1,122 @@
+package cppclassanalyzer.database.upgrade;
+
+import java.io.IOException;
+import java.util.List;
+
+import ghidra.util.Msg;
+import ghidra.util.exception.AssertException;
+import ghidra.util.exception.DuplicateNameException;
+
+import cppclassanalyzer.database.schema.AbstractSchema;
+
+import db.DBHandle;
+import db.RecordIterator;
+import db.Table;
+
+/**
+ * Opens the tables of a schema, upgrading any table written with an older version
+ * of the schema in place.
+ * <p>
+ * An upgrade is a single streaming pass over the old table. Each record is translated
+ * by the {@link TableAdapter} for the old version and written to a new table, which
+ * then replaces the old one under the same name.
+ */
+public final class TableUpgrader {
+
+	private static final String UPGRADE_SUFFIX = " (Upgrading)";
+
+	private final AbstractSchema<?> schema;
+	private final int[] indexedColumns;
+	private final List<TableAdapter> adapters;
+
+	/**
+	 * Constructs a new TableUpgrader
+	 * @param schema the current schema
+	 * @param indexedColumns the indexed columns of the current schema
+	 * @param adapters the adapters for the older versions of the schema
+	 */
+	public TableUpgrader(AbstractSchema<?> schema, int[] indexedColumns,
+			TableAdapter... adapters) {
+		this.schema = schema;
+		this.indexedColumns = indexedColumns;
+		this.adapters = List.of(adapters);
+	}
+
+	/**
+	 * Gets the current schema
+	 * @return the current schema
+	 */
+	public AbstractSchema<?> getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Checks if the table has the current schema or can be upgraded to it
+	 * @param table the table
+	 * @return true if the table can be opened
+	 */
+	public boolean canOpen(Table table) {
+		return schema.equals(table.getSchema()) || getAdapter(table.getSchema()) != null;
+	}
+
+	private TableAdapter getAdapter(db.Schema oldSchema) {
+		for (TableAdapter adapter : adapters) {
+			if (adapter.canRead(oldSchema)) {
+				return adapter;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Opens the named table and upgrades it if it has an older schema.
+	 * A transaction is started for the upgrade if one is not already active.
+	 * @param handle the database handle
+	 * @param name the table name
+	 * @return the table with the current schema or null if the table does not
+	 * exist, its schema is not known or it must be upgraded in a read-only database
+	 * @throws IOException if an error occurs upgrading the table
+	 */
+	public Table open(DBHandle handle, String name) throws IOException {
+		Table table = handle.getTable(name);
+		if (table == null || schema.equals(table.getSchema())) {
+			return table;
+		}
+		TableAdapter adapter = getAdapter(table.getSchema());
+		if (adapter == null || !handle.canUpdate()) {
+			return null;
+		}
+		long id = handle.isTransactionActive() ? -1 : handle.startTransaction();
+		boolean success = false;
+		try {
+			table = upgrade(handle, table, adapter);
+			success = true;
+			Msg.info(this, String.format("Upgraded %s from version %d to %d",
+				name, adapter.getVersion(), schema.getVersion()));
+			return table;
+		} finally {
+			if (id != -1) {
+				handle.endTransaction(id, success);
+			}
+		}
+	}
+
+	private Table upgrade(DBHandle handle, Table oldTable, TableAdapter adapter)
+			throws IOException {
+		String name = oldTable.getName();
+		Table table = handle.createTable(name + UPGRADE_SUFFIX, schema, indexedColumns);
+		RecordIterator iter = oldTable.iterator();
+		while (iter.hasNext()) {
+			table.putRecord(adapter.translate(iter.next()));
+		}
+		handle.deleteTable(name);
+		try {
+			table.setName(name);
+		} catch (DuplicateNameException e) {
+			// impossible. the old table has been deleted
+			throw new AssertException(e);
+		}
+		adapter.complete(table);
+		return table;
+	}
+}
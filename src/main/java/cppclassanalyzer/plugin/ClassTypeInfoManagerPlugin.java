@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import ghidra.app.cmd.data.rtti.gcc.BatchGnuDemangler;
 import ghidra.app.cmd.data.rtti.gcc.UnresolvedClassTypeInfoException;
 import ghidra.app.plugin.PluginCategoryNames;
 import ghidra.app.plugin.ProgramPlugin;
@@ -22,6 +23,8 @@ import cppclassanalyzer.service.ClassTypeInfoManagerService;
 
 import ghidra.app.services.DataTypeManagerService;
 import ghidra.app.services.GoToService;
+import ghidra.framework.options.OptionsChangeListener;
+import ghidra.framework.options.ToolOptions;
 import ghidra.framework.plugintool.PluginInfo;
 import ghidra.framework.plugintool.PluginTool;
 import ghidra.framework.plugintool.util.PluginStatus;
@@ -33,6 +36,7 @@ import cppclassanalyzer.data.manager.ClassTypeInfoManagerDB;
 import cppclassanalyzer.data.manager.FileArchiveClassTypeInfoManager;
 import cppclassanalyzer.data.manager.LibraryClassTypeInfoManager;
 import cppclassanalyzer.data.manager.ProjectClassTypeInfoManager;
+import cppclassanalyzer.data.manager.caches.RttiCachePair;
 import cppclassanalyzer.data.typeinfo.ArchivedClassTypeInfo;
 import cppclassanalyzer.data.vtable.ArchivedVtable;
 import cppclassanalyzer.database.SchemaMismatchException;
@@ -73,15 +77,24 @@ import static ghidra.util.SystemUtilities.isInHeadlessMode;
 )
 //@formatter:on
 public class ClassTypeInfoManagerPlugin extends ProgramPlugin
-		implements ClassTypeInfoManagerService, PopupActionProvider, ArchiveManagerListener {
+		implements ClassTypeInfoManagerService, PopupActionProvider, ArchiveManagerListener,
+		OptionsChangeListener {
+
+	private static final String OPTIONS_CATEGORY = CppClassAnalyzerPluginPackage.NAME;
+	private static final String CACHE_SIZE_OPTION = "RTTI Object Cache Size";
+	private static final String CACHE_SIZE_DESCRIPTION =
+		"The number of types and vtables kept in memory for each program. " +
+		"A value of 0 sizes the caches from the number of types and the available memory.";
 
 	private final DecompilerAPI api;
 	private final List<ClassTypeInfoManager> managers;
 	private final TypeInfoTreeProvider provider;
+	private final TypeInfoChangeCoalescer changes;
 	private final Clipboard clipboard;
 	private final FillOutClassAction fillOutClassAction;
 	private DataTypeManagerPlugin dtmPlugin;
 	private ProgramClassTypeInfoManager currentManager;
+	private volatile int cacheCapacity = RttiCachePair.ADAPTIVE_CAPACITY;
 
 	public ClassTypeInfoManagerPlugin(PluginTool tool) {
 		super(tool, true, true);
@@ -89,6 +102,7 @@ public class ClassTypeInfoManagerPlugin extends ProgramPlugin
 		this.clipboard = new Clipboard(getName());
 		this.managers = Collections.synchronizedList(new ArrayList<>());
 		this.provider = !isInHeadlessMode() ? new TypeInfoTreeProvider(tool, this) : null;
+		this.changes = provider != null ? new TypeInfoChangeCoalescer(provider.getTree()) : null;
 		this.fillOutClassAction = new FillOutClassAction(this);
 	}
 
@@ -97,6 +111,7 @@ public class ClassTypeInfoManagerPlugin extends ProgramPlugin
 		DataTypeManagerService service = tool.getService(DataTypeManagerService.class);
 		dtmPlugin = (DataTypeManagerPlugin) service;
 		dtmPlugin.getDataTypeManagerHandler().addArchiveManagerListener(this);
+		initOptions();
 		if (!isInHeadlessMode()) {
 			DecompilerProvider provider =
 				(DecompilerProvider) tool.getComponentProvider("Decompiler");
@@ -104,10 +119,41 @@ public class ClassTypeInfoManagerPlugin extends ProgramPlugin
 		}
 	}
 
+	private void initOptions() {
+		ToolOptions options = tool.getOptions(OPTIONS_CATEGORY);
+		options.registerOption(CACHE_SIZE_OPTION, RttiCachePair.ADAPTIVE_CAPACITY, null,
+			CACHE_SIZE_DESCRIPTION);
+		cacheCapacity = options.getInt(CACHE_SIZE_OPTION, RttiCachePair.ADAPTIVE_CAPACITY);
+		options.addOptionsChangeListener(this);
+	}
+
+	@Override
+	public void optionsChanged(ToolOptions options, String optionName, Object oldValue,
+			Object newValue) {
+		if (CACHE_SIZE_OPTION.equals(optionName)) {
+			cacheCapacity = (Integer) newValue;
+			managers.stream()
+				.filter(ClassTypeInfoManagerDB.class::isInstance)
+				.map(ClassTypeInfoManagerDB.class::cast)
+				.forEach(m -> m.setCacheCapacity(cacheCapacity));
+		}
+	}
+
+	/**
+	 * Gets the configured capacity of the program type and vtable caches
+	 * @return the cache capacity or {@link RttiCachePair#ADAPTIVE_CAPACITY}
+	 */
+	public int getCacheCapacity() {
+		return cacheCapacity;
+	}
+
 	@Override
 	protected void programOpened(Program program) {
 		try {
 			managers.add(new ClassTypeInfoManagerDB(this, (ProgramDB) program));
+			if (changes != null) {
+				program.addTransactionListener(changes);
+			}
 		} catch (SchemaMismatchException e) {
 			Msg.showInfo(this, null, "Ghidra C++ Class Analyzer", e.getMessage());
 		}
@@ -119,6 +165,12 @@ public class ClassTypeInfoManagerPlugin extends ProgramPlugin
 		if (man != null) {
 			managers.remove(getManager(program));
 		}
+		if (changes != null) {
+			program.removeTransactionListener(changes);
+			if (man != null) {
+				changes.discard(man);
+			}
+		}
 	}
 
 	@Override
@@ -206,17 +258,14 @@ public class ClassTypeInfoManagerPlugin extends ProgramPlugin
 		return dtmPlugin.getDataTypeManagerHandler();
 	}
 
+	/**
+	 * Notifies the plugin of a change to a manager's types.
+	 * The changes are coalesced and applied to the tree in batches.
+	 * @param record the change record
+	 */
 	public void managerChanged(TypeInfoArchiveChangeRecord record) {
-		switch (record.getChangeType()) {
-			case TYPE_ADDED:
-				provider.getTree().typeAdded(record.getType());
-				break;
-			case TYPE_REMOVED:
-				provider.getTree().typeRemoved(record.getType());
-				break;
-			case TYPE_UPDATED:
-				provider.getTree().typeUpdated(record.getType());
-				break;
+		if (changes != null) {
+			changes.add(record);
 		}
 	}
 
@@ -236,12 +285,15 @@ public class ClassTypeInfoManagerPlugin extends ProgramPlugin
 	@Override
 	protected void dispose() {
 		if (!isInHeadlessMode()) {
+			changes.dispose();
 			tool.removeComponentProvider(provider);
 			provider.dispose();
 			fillOutClassAction.dispose();
 		}
 		getDataTypeManagerHandler().removeArchiveManagerListener(this);
+		tool.getOptions(OPTIONS_CATEGORY).removeOptionsChangeListener(this);
 		api.dispose();
+		BatchGnuDemangler.getInstance().dispose();
 	}
 
 	public TypeInfoTreeProvider getProvider() {
@@ -311,6 +363,9 @@ public class ClassTypeInfoManagerPlugin extends ProgramPlugin
 		ClassTypeInfoManager manager = getManager(archive);
 		if (manager != null) {
 			managers.remove(manager);
+			if (changes != null) {
+				changes.discard(manager);
+			}
 			managerRemoved(manager);
 		}
 	}
@@ -1,15 +1,25 @@
 package cppclassanalyzer.plugin;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
 
 public class TypeInfoArchiveChangeRecord {
 
 	private final ChangeType changeType;
-	private final ClassTypeInfoDB type;
+	private final List<ClassTypeInfoDB> types;
 
 	public TypeInfoArchiveChangeRecord(ChangeType changeType, ClassTypeInfoDB type) {
 		this.changeType = changeType;
-		this.type = type;
+		this.types = Collections.singletonList(type);
+	}
+
+	public TypeInfoArchiveChangeRecord(ChangeType changeType,
+			Collection<? extends ClassTypeInfoDB> types) {
+		this.changeType = changeType;
+		this.types = List.copyOf(types);
 	}
 
 	public ChangeType getChangeType() {
@@ -17,12 +27,18 @@ public class TypeInfoArchiveChangeRecord {
 	}
 
 	public ClassTypeInfoDB getType() {
-		return type;
+		return types.get(0);
+	}
+
+	public List<ClassTypeInfoDB> getTypes() {
+		return types;
 	}
 
 	public static enum ChangeType {
 		TYPE_ADDED,
 		TYPE_REMOVED,
-		TYPE_UPDATED
+		TYPE_UPDATED,
+		TYPES_ADDED,
+		TYPES_UPDATED
 	};
 }
@@ -0,0 +1,146 @@
+package cppclassanalyzer.plugin;
+
+import java.util.*;
+
+import ghidra.framework.data.DomainObjectAdapterDB;
+import ghidra.framework.model.Transaction;
+import ghidra.framework.model.TransactionListener;
+import ghidra.util.task.SwingUpdateManager;
+
+import cppclassanalyzer.data.ClassTypeInfoManager;
+import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
+import cppclassanalyzer.plugin.TypeInfoArchiveChangeRecord.ChangeType;
+
+/**
+ * Buffers the type changes of each {@link ClassTypeInfoManager} and delivers them
+ * to a {@link TypeInfoManagerListener} in batches on the Swing thread.
+ * <p>
+ * The buffered changes are flushed shortly after the last change or once the
+ * transaction which made them has ended. Successive changes to the same type are
+ * coalesced so that a type which was added and then updated is only reported as added
+ * and a type which was added and then removed is not reported at all.
+ */
+final class TypeInfoChangeCoalescer implements TransactionListener {
+
+	private static final int MIN_DELAY = 250;
+	private static final int MAX_DELAY = 1000;
+
+	private final TypeInfoManagerListener listener;
+	private final SwingUpdateManager updateManager;
+
+	// guarded by this
+	private Map<ClassTypeInfoManager, Map<ClassTypeInfoDB, ChangeType>> pending =
+		new LinkedHashMap<>();
+
+	TypeInfoChangeCoalescer(TypeInfoManagerListener listener) {
+		this.listener = listener;
+		this.updateManager =
+			new SwingUpdateManager(MIN_DELAY, MAX_DELAY, "TypeInfo Changes", this::flush);
+	}
+
+	/**
+	 * Buffers the changed types until the next flush
+	 * @param record the change record
+	 */
+	void add(TypeInfoArchiveChangeRecord record) {
+		ChangeType change = record.getChangeType();
+		if (change == ChangeType.TYPES_ADDED) {
+			change = ChangeType.TYPE_ADDED;
+		} else if (change == ChangeType.TYPES_UPDATED) {
+			change = ChangeType.TYPE_UPDATED;
+		}
+		synchronized (this) {
+			for (ClassTypeInfoDB type : record.getTypes()) {
+				Map<ClassTypeInfoDB, ChangeType> changes =
+					pending.computeIfAbsent(type.getManager(), m -> new LinkedHashMap<>());
+				// the type is removed first so the latest object replaces an equal stale one
+				ChangeType result = merge(changes.remove(type), change);
+				if (result != null) {
+					changes.put(type, result);
+				}
+			}
+		}
+		updateManager.update();
+	}
+
+	/**
+	 * Merges a change with the change already buffered for the same type
+	 * @param previous the buffered change or null if there is none
+	 * @param change the new change
+	 * @return the merged change or null if the type no longer needs to be reported
+	 */
+	static ChangeType merge(ChangeType previous, ChangeType change) {
+		if (previous == null) {
+			return change;
+		}
+		switch (previous) {
+			case TYPE_ADDED:
+				// the listener has never seen a type which is removed before the flush
+				return change == ChangeType.TYPE_REMOVED ? null : previous;
+			case TYPE_REMOVED:
+				return change == ChangeType.TYPE_ADDED ? ChangeType.TYPE_UPDATED : previous;
+			default:
+				return change;
+		}
+	}
+
+	/**
+	 * Discards the buffered changes for a manager which is being closed
+	 * @param manager the manager
+	 */
+	synchronized void discard(ClassTypeInfoManager manager) {
+		pending.remove(manager);
+	}
+
+	/**
+	 * Delivers the buffered changes as soon as possible
+	 */
+	void flushNow() {
+		updateManager.updateNow();
+	}
+
+	void dispose() {
+		updateManager.dispose();
+		synchronized (this) {
+			pending.clear();
+		}
+	}
+
+	private void flush() {
+		Map<ClassTypeInfoManager, Map<ClassTypeInfoDB, ChangeType>> changes;
+		synchronized (this) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			changes = pending;
+			pending = new LinkedHashMap<>();
+		}
+		for (Map<ClassTypeInfoDB, ChangeType> managerChanges : changes.values()) {
+			Map<ChangeType, List<ClassTypeInfoDB>> batches = new EnumMap<>(ChangeType.class);
+			for (Map.Entry<ClassTypeInfoDB, ChangeType> entry : managerChanges.entrySet()) {
+				batches.computeIfAbsent(entry.getValue(), c -> new ArrayList<>())
+					.add(entry.getKey());
+			}
+			listener.typesRemoved(batches.getOrDefault(ChangeType.TYPE_REMOVED, List.of()));
+			listener.typesAdded(batches.getOrDefault(ChangeType.TYPE_ADDED, List.of()));
+			listener.typesUpdated(batches.getOrDefault(ChangeType.TYPE_UPDATED, List.of()));
+		}
+	}
+
+	@Override
+	public void transactionStarted(DomainObjectAdapterDB domainObj, Transaction tx) {
+	}
+
+	@Override
+	public void transactionEnded(DomainObjectAdapterDB domainObj) {
+		flushNow();
+	}
+
+	@Override
+	public void undoStackChanged(DomainObjectAdapterDB domainObj) {
+	}
+
+	@Override
+	public void undoRedoOccurred(DomainObjectAdapterDB domainObj) {
+	}
+}
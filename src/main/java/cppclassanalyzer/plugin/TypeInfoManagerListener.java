@@ -1,5 +1,7 @@
 package cppclassanalyzer.plugin;
 
+import java.util.Collection;
+
 import cppclassanalyzer.data.ClassTypeInfoManager;
 import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
 
@@ -26,15 +28,39 @@ public interface TypeInfoManagerListener {
 	 */
 	void typeAdded(ClassTypeInfoDB type);
 
+	/**
+	 * Invoked when a batch of types has been added to a manager
+	 * @param types the added types
+	 */
+	default void typesAdded(Collection<ClassTypeInfoDB> types) {
+		types.forEach(this::typeAdded);
+	}
+
 	/**
 	 * Invoked when a type has been removed to a manager
 	 * @param type the removed type
 	 */
 	void typeRemoved(ClassTypeInfoDB type);
 
+	/**
+	 * Invoked when a batch of types has been removed from a manager
+	 * @param types the removed types
+	 */
+	default void typesRemoved(Collection<ClassTypeInfoDB> types) {
+		types.forEach(this::typeRemoved);
+	}
+
 	/**
 	 * Invoked when a type has been updated
 	 * @param type the updated type
 	 */
 	void typeUpdated(ClassTypeInfoDB type);
+
+	/**
+	 * Invoked when a batch of types has been updated
+	 * @param types the updated types
+	 */
+	default void typesUpdated(Collection<ClassTypeInfoDB> types) {
+		types.forEach(this::typeUpdated);
+	}
 }
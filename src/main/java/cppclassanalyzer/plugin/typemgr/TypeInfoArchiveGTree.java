@@ -1,8 +1,12 @@
 package cppclassanalyzer.plugin.typemgr;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import javax.swing.Icon;
@@ -81,6 +85,67 @@ public final class TypeInfoArchiveGTree extends GTree implements TypeInfoManager
 		return getRoot().getNode(type.getManager());
 	}
 
+	private boolean isManagerOpen(ClassTypeInfoDB type) {
+		ClassTypeInfoManager manager = type.getManager();
+		if (manager instanceof LibraryClassTypeInfoManager) {
+			manager = ((LibraryClassTypeInfoManager) manager).getProjectManager();
+			if (getRoot().getChild(manager.getName()) == null) {
+				return false;
+			}
+			manager = type.getManager();
+		}
+		return getRoot().getNode(manager) != null;
+	}
+
+	@Override
+	public void typesAdded(Collection<ClassTypeInfoDB> types) {
+		for (List<ClassTypeInfoDB> batch : groupByManager(types).values()) {
+			getManagerNode(batch.get(0)).addNodes(batch);
+		}
+	}
+
+	@Override
+	public void typesRemoved(Collection<ClassTypeInfoDB> types) {
+		// each parent loses all of its removed children at once
+		Map<GTreeNode, List<GTreeNode>> removed = new LinkedHashMap<>();
+		for (List<ClassTypeInfoDB> batch : groupByManager(types).values()) {
+			for (ClassTypeInfoDB type : batch) {
+				GTreeNode node = getNode(type);
+				if (node != null && node.getName().equals(type.getName())
+						&& node.getParent() != null) {
+					removed.computeIfAbsent(node.getParent(), k -> new ArrayList<>()).add(node);
+				}
+			}
+		}
+		removed.forEach((parent, nodes) -> {
+			List<GTreeNode> children = new ArrayList<>(parent.getChildren());
+			children.removeAll(nodes);
+			parent.setChildren(children);
+		});
+	}
+
+	@Override
+	public void typesUpdated(Collection<ClassTypeInfoDB> types) {
+		for (List<ClassTypeInfoDB> batch : groupByManager(types).values()) {
+			for (ClassTypeInfoDB type : batch) {
+				getNode(type).typeUpdated(type);
+			}
+		}
+		// the node contents changed in place so a single repaint covers the batch
+		repaint();
+	}
+
+	private Map<ClassTypeInfoManager, List<ClassTypeInfoDB>> groupByManager(
+			Collection<ClassTypeInfoDB> types) {
+		Map<ClassTypeInfoManager, List<ClassTypeInfoDB>> result = new LinkedHashMap<>();
+		for (ClassTypeInfoDB type : types) {
+			if (isManagerOpen(type)) {
+				result.computeIfAbsent(type.getManager(), k -> new ArrayList<>()).add(type);
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public void typeAdded(ClassTypeInfoDB type) {
 		getManagerNode(type).addNode(type);
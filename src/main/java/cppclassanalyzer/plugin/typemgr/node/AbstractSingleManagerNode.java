@@ -8,7 +8,6 @@ import docking.widgets.tree.GTreeNode;
 import static cppclassanalyzer.database.schema.fields.TypeInfoTreeNodeSchemaFields.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import ghidra.app.util.SymbolPath;
 import ghidra.util.Msg;
@@ -27,26 +26,15 @@ abstract class AbstractSingleManagerNode extends AbstractManagerNode {
 
 	@Override
 	public final void addNode(int index, GTreeNode node) {
-		if (node instanceof TypeInfoTreeNode) {
-			TypeInfoTreeNode treeNode = (TypeInfoTreeNode) node;
-			TypeInfoTreeNodeRecord record = getRecord();
-			long key = treeNode.getKey();
-			long[] children = record.getLongArray(CHILDREN_KEYS);
-			if (Arrays.binarySearch(children, key) < 0) {
-				Set<Long> kids = Arrays.stream(children)
-					.boxed()
-					.collect(Collectors.toCollection(TreeSet::new));
-				kids.add(key);
-				children = kids.stream()
-					.mapToLong(Long::longValue)
-					.toArray();
-				record.setLongArray(CHILDREN_KEYS, children);
-				getManager().updateRecord(record);
-			}
-		}
+		addChildKeys(List.of(node));
 		super.addNode(index, node);
 	}
 
+	@Override
+	final void addChildKeys(List<GTreeNode> nodes) {
+		getManager().addChildKeys(getRecord(), nodes);
+	}
+
 	@Override
 	public final List<GTreeNode> generateChildren(TaskMonitor monitor) throws CancelledException {
 		return getManager().generateChildren(this, monitor);
@@ -66,12 +54,11 @@ abstract class AbstractSingleManagerNode extends AbstractManagerNode {
 		parent.addNode(child);
 	}
 
-	private void createTypeNode(GTreeNode node, ClassTypeInfoDB type) {
+	private GTreeNode createTypeNode(ClassTypeInfoDB type) {
 		TypeInfoTreeNodeManager treeManager = getManager();
 		GTreeNode child = treeManager.createTypeNode(type);
 		treePaths.put(type.getSymbolPath(), child);
-		node.addNode(child);
-		return;
+		return child;
 	}
 
 	private GTreeNode createNamespaceNode(GTreeNode node, SymbolPath path) {
@@ -82,8 +69,13 @@ abstract class AbstractSingleManagerNode extends AbstractManagerNode {
 		return child;
 	}
 
-	@Override
-	public final void addNode(ClassTypeInfoDB type) {
+	/**
+	 * Gets the node which the type's node is to be added to, creating any missing
+	 * namespace nodes along the way
+	 * @param type the type
+	 * @return the parent node or null if the type's node already exists
+	 */
+	private GTreeNode getParentNode(ClassTypeInfoDB type) {
 		SymbolPath path = type.getSymbolPath();
 		if (treePaths.containsKey(path)) {
 			GTreeNode node = treePaths.get(path);
@@ -92,25 +84,45 @@ abstract class AbstractSingleManagerNode extends AbstractManagerNode {
 			} else if (node instanceof NamespacePathNode) {
 				convertToTypeNode((NamespacePathNode) node, type);
 			}
-			return;
+			return null;
 		}
 		path = path.getParent();
 		if (path != null && treePaths.containsKey(path)) {
-			GTreeNode node = treePaths.get(path);
-			createTypeNode(node, type);
-		} else {
-			int size = path != null ? path.asList().size() : 0;
-			ArrayDeque<SymbolPath> stack = new ArrayDeque<>(size);
-			while (!treePaths.containsKey(path) && path != null) {
-				stack.push(path);
-				path = path.getParent();
-			}
-			GTreeNode node = path != null ? treePaths.get(path) : this;
-			while (!stack.isEmpty()) {
-				node = createNamespaceNode(node, stack.pop());
+			return treePaths.get(path);
+		}
+		int size = path != null ? path.asList().size() : 0;
+		ArrayDeque<SymbolPath> stack = new ArrayDeque<>(size);
+		while (!treePaths.containsKey(path) && path != null) {
+			stack.push(path);
+			path = path.getParent();
+		}
+		GTreeNode node = path != null ? treePaths.get(path) : this;
+		while (!stack.isEmpty()) {
+			node = createNamespaceNode(node, stack.pop());
+		}
+		return node;
+	}
+
+	@Override
+	public final void addNode(ClassTypeInfoDB type) {
+		GTreeNode parent = getParentNode(type);
+		if (parent != null) {
+			parent.addNode(createTypeNode(type));
+		}
+	}
+
+	@Override
+	public final void addNodes(Collection<ClassTypeInfoDB> types) {
+		// each parent receives all of its new children at once
+		Map<GTreeNode, List<GTreeNode>> children = new LinkedHashMap<>();
+		for (ClassTypeInfoDB type : types) {
+			GTreeNode parent = getParentNode(type);
+			if (parent != null) {
+				children.computeIfAbsent(parent, k -> new ArrayList<>())
+					.add(createTypeNode(type));
 			}
-			createTypeNode(node, type);
 		}
+		children.forEach(GTreeNode::addNodes);
 	}
 
 	@Override
@@ -1,5 +1,6 @@
 package cppclassanalyzer.plugin.typemgr.node;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,4 +29,25 @@ abstract class AbstractSortedSlowLoadingNode extends GTreeSlowLoadingNode {
 	public void addNode(int index, GTreeNode node) {
 		SystemUtilities.runSwingLater(() -> super.addNode(index, node));
 	}
+
+	@Override
+	public final void addNodes(List<GTreeNode> nodes) {
+		addChildKeys(nodes);
+		if (isLoaded()) {
+			// a single structure change instead of one per node
+			SystemUtilities.runSwingLater(() -> {
+				List<GTreeNode> kids = new ArrayList<>(getChildren());
+				kids.addAll(nodes);
+				kids.sort(null);
+				setChildren(kids);
+			});
+		}
+	}
+
+	/**
+	 * Records the keys of the nodes being added as children of this node
+	 * @param nodes the nodes being added
+	 */
+	void addChildKeys(List<GTreeNode> nodes) {
+	}
 }
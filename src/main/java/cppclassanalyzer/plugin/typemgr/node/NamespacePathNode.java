@@ -11,8 +11,7 @@ import docking.widgets.tree.GTreeNode;
 
 import static cppclassanalyzer.database.schema.fields.TypeInfoTreeNodeSchemaFields.*;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.List;
 
 public final class NamespacePathNode extends AbstractSortedSlowLoadingNode
 		implements TypeInfoTreeNode {
@@ -42,25 +41,15 @@ public final class NamespacePathNode extends AbstractSortedSlowLoadingNode
 
 	@Override
 	public void addNode(int index, GTreeNode node) {
-		if (node instanceof TypeInfoTreeNode) {
-			TypeInfoTreeNode treeNode = (TypeInfoTreeNode) node;
-			long key = treeNode.getKey();
-			long[] children = record.getLongArray(CHILDREN_KEYS);
-			if (Arrays.binarySearch(children, key) < 0) {
-				Set<Long> kids = Arrays.stream(children)
-					.boxed()
-					.collect(Collectors.toCollection(TreeSet::new));
-				kids.add(key);
-				children = kids.stream()
-					.mapToLong(Long::longValue)
-					.toArray();
-				record.setLongArray(CHILDREN_KEYS, children);
-				getManager().updateRecord(record);
-			}
-		}
+		addChildKeys(List.of(node));
 		super.addNode(index, node);
 	}
 
+	@Override
+	void addChildKeys(List<GTreeNode> nodes) {
+		getManager().addChildKeys(record, nodes);
+	}
+
 	@Override
 	public GTreeNode clone() {
 		return this;
@@ -1,5 +1,6 @@
 package cppclassanalyzer.plugin.typemgr.node;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -34,6 +35,11 @@ public final class ProjectArchiveTypeInfoNode extends AbstractManagerNode {
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public void addNodes(Collection<ClassTypeInfoDB> types) {
+		throw new UnsupportedOperationException();
+	}
+
 	@Override
 	public TypeInfoNode getNode(ClassTypeInfoDB type) {
 		throw new UnsupportedOperationException();
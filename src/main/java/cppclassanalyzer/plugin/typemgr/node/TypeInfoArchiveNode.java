@@ -1,5 +1,7 @@
 package cppclassanalyzer.plugin.typemgr.node;
 
+import java.util.Collection;
+
 import cppclassanalyzer.data.ClassTypeInfoManager;
 import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
 
@@ -8,6 +10,8 @@ public interface TypeInfoArchiveNode extends TypeInfoTreeNode {
 	ClassTypeInfoManager getTypeManager();
 	void addNode(ClassTypeInfoDB type);
 
+	void addNodes(Collection<ClassTypeInfoDB> types);
+
 	TypeInfoNode getNode(ClassTypeInfoDB type);
 
 	boolean isProgramNode();
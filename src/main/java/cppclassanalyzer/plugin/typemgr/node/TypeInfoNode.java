@@ -82,6 +82,14 @@ public final class TypeInfoNode extends GTreeLazyNode implements TypeInfoTreeNod
 		nested.addNode(node);
 	}
 
+	@Override
+	public void addNodes(List<GTreeNode> nodes) {
+		if (nested == null) {
+			nested = new NamespacePathNode(getManager(), record);
+		}
+		nested.addNodes(nodes);
+	}
+
 	@Override
 	public GTreeNode clone() {
 		return this;
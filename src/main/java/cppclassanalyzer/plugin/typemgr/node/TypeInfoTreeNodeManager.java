@@ -203,6 +203,32 @@ public class TypeInfoTreeNodeManager implements Disposable, DomainObjectListener
 		}
 	}
 
+	/**
+	 * Adds the keys of the child nodes to the parent's record with a single update
+	 * @param record the parent record
+	 * @param nodes the child nodes
+	 */
+	void addChildKeys(TypeInfoTreeNodeRecord record, Collection<GTreeNode> nodes) {
+		long[] children = record.getLongArray(CHILDREN_KEYS);
+		Set<Long> kids = new TreeSet<>();
+		for (long key : children) {
+			kids.add(key);
+		}
+		for (GTreeNode node : nodes) {
+			if (node instanceof TypeInfoTreeNode) {
+				kids.add(((TypeInfoTreeNode) node).getKey());
+			}
+		}
+		if (kids.size() == children.length) {
+			return;
+		}
+		children = kids.stream()
+			.mapToLong(Long::longValue)
+			.toArray();
+		record.setLongArray(CHILDREN_KEYS, children);
+		updateRecord(record);
+	}
+
 	public void updateRecord(TypeInfoTreeNodeRecord record) {
 		lock.acquire();
 		try {
@@ -11,6 +11,7 @@ import ghidra.app.cmd.function.CreateThunkFunctionCmd;
 import ghidra.framework.model.DomainObject;
 import ghidra.framework.plugintool.PluginTool;
 import ghidra.program.model.address.Address;
+import ghidra.program.model.address.AddressSetView;
 import ghidra.program.model.listing.Function;
 import ghidra.program.model.listing.FunctionManager;
 import ghidra.program.model.listing.Program;
@@ -131,6 +132,17 @@ public final class CppClassAnalyzerUtils {
 		return service.getManager(program);
 	}
 
+	/**
+	 * Checks if the address set only covers part of the program's memory.
+	 * This is the case when a region of the program is being re-analyzed.
+	 * @param program the program being analyzed
+	 * @param set the address set passed to the analyzer
+	 * @return true if the address set does not contain all of the program's memory
+	 */
+	public static boolean isPartialSet(Program program, AddressSetView set) {
+		return !set.contains(program.getMemory());
+	}
+
 	/**
 	 * Gets all MemoryBlocks in a Program which hold non-volatile data
 	 * @param program the program to be searched
@@ -0,0 +1,281 @@
+package cppclassanalyzer.utils;
+
+import java.util.*;
+
+import ghidra.program.model.address.AddressRange;
+import ghidra.program.model.address.AddressSetView;
+import ghidra.program.model.address.AddressSpace;
+import ghidra.program.model.listing.Program;
+import ghidra.program.model.mem.Memory;
+import ghidra.program.model.mem.MemoryAccessException;
+import ghidra.program.model.mem.MemoryBlock;
+import ghidra.util.exception.CancelledException;
+import ghidra.util.task.TaskMonitor;
+
+/**
+ * Reads every aligned pointer in the initialized data blocks of a {@link Program}.
+ * Each block is copied into a reusable buffer in large chunks and the pointers
+ * are decoded with the program's endianness and pointer size.
+ */
+final class DataBlockPointerReader {
+
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * Receives each aligned pointer in ascending address order within a block
+	 */
+	interface PointerVisitor {
+
+		/**
+		 * Visits a pointer
+		 * @param space the index of the pointer's address space in {@link #getSpaces()}
+		 * @param offset the offset of the pointer within its address space
+		 * @param value the decoded pointer value
+		 * @throws CancelledException if the visitor is cancelled
+		 */
+		void visit(int space, long offset, long value) throws CancelledException;
+	}
+
+	private final List<MemoryBlock> blocks;
+	private final AddressSetView set;
+	private final List<AddressSpace> spaces = new ArrayList<>();
+	private final MemoryRanges ranges;
+	private final int pointerSize;
+	private final int alignment;
+	private final boolean bigEndian;
+
+	DataBlockPointerReader(Program program) {
+		this(program, null);
+	}
+
+	/**
+	 * Constructs a reader which only reads the pointers of the data blocks
+	 * within the address set
+	 * @param program the program
+	 * @param set the address set to read or null to read the whole of every data block
+	 */
+	DataBlockPointerReader(Program program, AddressSetView set) {
+		Memory mem = program.getMemory();
+		this.blocks = CppClassAnalyzerUtils.getAllDataBlocks(program);
+		this.set = set;
+		this.ranges = new MemoryRanges(mem);
+		this.pointerSize = program.getDefaultPointerSize();
+		this.alignment =
+			program.getDataTypeManager().getDataOrganization().getDefaultPointerAlignment();
+		this.bigEndian = mem.isBigEndian();
+	}
+
+	/**
+	 * Gets the address spaces referred to by the visited pointers
+	 * @return the address spaces
+	 */
+	List<AddressSpace> getSpaces() {
+		return spaces;
+	}
+
+	/**
+	 * Gets the size of a pointer in bytes
+	 * @return the pointer size
+	 */
+	int getPointerSize() {
+		return pointerSize;
+	}
+
+	/**
+	 * Checks if the value points somewhere within the program's memory
+	 * @param value the pointer value
+	 * @return true if the value is a valid pointer
+	 */
+	boolean isValidPointer(long value) {
+		return value != 0 && ranges.contains(value);
+	}
+
+	/**
+	 * Reads all the pointers in the data blocks
+	 * @param monitor the task monitor
+	 * @param visitor the pointer visitor
+	 * @throws CancelledException if the read is cancelled
+	 */
+	void read(TaskMonitor monitor, PointerVisitor visitor) throws CancelledException {
+		byte[] bytes = new byte[CHUNK_SIZE];
+		monitor.initialize(blocks.size());
+		for (MemoryBlock block : blocks) {
+			monitor.checkCanceled();
+			monitor.incrementProgress(1);
+			if (!block.isInitialized()) {
+				continue;
+			}
+			AddressSpace space = block.getStart().getAddressSpace();
+			int spaceId = spaces.indexOf(space);
+			if (spaceId == -1) {
+				spaceId = spaces.size();
+				spaces.add(space);
+			}
+			if (set == null) {
+				readRange(block, spaceId, 0, block.getSize(), bytes, monitor, visitor);
+				continue;
+			}
+			for (AddressRange range : set.intersectRange(block.getStart(), block.getEnd())) {
+				long start = range.getMinAddress().subtract(block.getStart());
+				// a pointer starting at the end of the range may extend past it
+				long end = Math.min(
+					range.getMaxAddress().subtract(block.getStart()) + pointerSize,
+					block.getSize());
+				readRange(block, spaceId, start, end, bytes, monitor, visitor);
+			}
+		}
+	}
+
+	private void readRange(MemoryBlock block, int spaceId, long startOffset, long endOffset,
+			byte[] bytes, TaskMonitor monitor, PointerVisitor visitor) throws CancelledException {
+		long start = block.getStart().getOffset();
+		long misalignment = (start + startOffset) % alignment;
+		long offset = startOffset + (misalignment == 0 ? 0 : alignment - misalignment);
+		while (offset + pointerSize <= endOffset) {
+			monitor.checkCanceled();
+			int length = (int) Math.min(CHUNK_SIZE, endOffset - offset);
+			length -= length % alignment;
+			if (length < pointerSize) {
+				break;
+			}
+			int read;
+			try {
+				read = block.getBytes(block.getStart().add(offset), bytes, 0, length);
+			} catch (MemoryAccessException e) {
+				break;
+			}
+			int i = 0;
+			for (; i + pointerSize <= read; i += alignment) {
+				visitor.visit(spaceId, start + offset + i, decode(bytes, i));
+			}
+			if (read < length) {
+				break;
+			}
+			// resume at the first pointer which did not fit within this chunk
+			offset += i;
+		}
+	}
+
+	private long decode(byte[] bytes, int index) {
+		long value = 0;
+		if (bigEndian) {
+			for (int i = 0; i < pointerSize; i++) {
+				value = (value << 8) | (bytes[index + i] & 0xff);
+			}
+		} else {
+			for (int i = pointerSize - 1; i >= 0; i--) {
+				value = (value << 8) | (bytes[index + i] & 0xff);
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Sorted addressable word offset ranges of all the memory blocks.
+	 */
+	private static final class MemoryRanges {
+
+		private final long[] starts;
+		private final long[] ends;
+
+		MemoryRanges(Memory mem) {
+			MemoryBlock[] blocks = mem.getBlocks();
+			long[][] ranges = new long[blocks.length][];
+			for (int i = 0; i < blocks.length; i++) {
+				ranges[i] = new long[] {
+					blocks[i].getStart().getAddressableWordOffset(),
+					blocks[i].getEnd().getAddressableWordOffset()
+				};
+			}
+			Arrays.sort(ranges, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+			LongList mergedStarts = new LongList();
+			LongList mergedEnds = new LongList();
+			for (long[] range : ranges) {
+				int last = mergedEnds.size() - 1;
+				if (last >= 0 && Long.compareUnsigned(range[0], mergedEnds.get(last)) <= 0) {
+					// overlay blocks may share offsets with the blocks they overlay
+					if (Long.compareUnsigned(range[1], mergedEnds.get(last)) > 0) {
+						mergedEnds.set(last, range[1]);
+					}
+					continue;
+				}
+				mergedStarts.add(range[0]);
+				mergedEnds.add(range[1]);
+			}
+			starts = mergedStarts.toArray();
+			ends = mergedEnds.toArray();
+		}
+
+		boolean contains(long value) {
+			int lo = 0;
+			int hi = starts.length - 1;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				if (Long.compareUnsigned(value, starts[mid]) < 0) {
+					hi = mid - 1;
+				} else if (Long.compareUnsigned(value, ends[mid]) > 0) {
+					lo = mid + 1;
+				} else {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * A growable array of primitive longs
+	 */
+	static final class LongList {
+
+		private long[] values = new long[64];
+		private int size;
+
+		void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		long get(int index) {
+			return values[index];
+		}
+
+		void set(int index, long value) {
+			values[index] = value;
+		}
+
+		int size() {
+			return size;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+	}
+
+	/**
+	 * A growable array of primitive bytes
+	 */
+	static final class ByteList {
+
+		private byte[] values = new byte[64];
+		private int size;
+
+		void add(byte value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		byte get(int index) {
+			return values[index];
+		}
+
+		int size() {
+			return size;
+		}
+	}
+}
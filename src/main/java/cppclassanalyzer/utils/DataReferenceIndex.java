@@ -0,0 +1,211 @@
+package cppclassanalyzer.utils;
+
+import java.util.*;
+
+import ghidra.framework.model.DomainObject;
+import ghidra.framework.model.DomainObjectChangedEvent;
+import ghidra.framework.model.DomainObjectListener;
+import ghidra.program.model.address.Address;
+import ghidra.program.model.address.AddressSpace;
+import ghidra.program.model.listing.Program;
+import ghidra.program.util.ChangeManager;
+import ghidra.util.exception.CancelledException;
+import ghidra.util.task.TaskMonitor;
+
+import cppclassanalyzer.utils.DataBlockPointerReader.ByteList;
+import cppclassanalyzer.utils.DataBlockPointerReader.LongList;
+
+/**
+ * A reverse pointer index over all of the data blocks in a {@link Program}.
+ * Every aligned pointer in the initialized data blocks is read exactly once
+ * and grouped by the value it points to. The index is kept for the program
+ * until its memory changes or the program is closed.
+ */
+public final class DataReferenceIndex {
+
+	private static final int[] MEMORY_EVENTS = new int[] {
+		ChangeManager.DOCR_MEMORY_BLOCK_ADDED,
+		ChangeManager.DOCR_MEMORY_BLOCK_REMOVED,
+		ChangeManager.DOCR_MEMORY_BLOCK_CHANGED,
+		ChangeManager.DOCR_MEMORY_BLOCK_MOVED,
+		ChangeManager.DOCR_MEMORY_BLOCK_SPLIT,
+		ChangeManager.DOCR_MEMORY_BLOCKS_JOINED,
+		ChangeManager.DOCR_MEMORY_BYTES_CHANGED,
+		ChangeManager.DOCR_IMAGE_BASE_CHANGED,
+		DomainObject.DO_OBJECT_RESTORED
+	};
+
+	private static final Map<Program, DataReferenceIndex> INDEXES = new WeakHashMap<>();
+	private static final IndexInvalidator INVALIDATOR = new IndexInvalidator();
+
+	// the index must not reference the program as it is a value in a WeakHashMap
+	private final AddressSpace[] spaces;
+
+	// CSR layout: referrers of targets[i] are at [starts[i], starts[i + 1])
+	private final long[] targets;
+	private final int[] starts;
+	private final long[] referrers;
+	private final byte[] referrerSpaces;
+
+	private DataReferenceIndex(AddressSpace[] spaces, long[] targets, int[] starts,
+			long[] referrers, byte[] referrerSpaces) {
+		this.spaces = spaces;
+		this.targets = targets;
+		this.starts = starts;
+		this.referrers = referrers;
+		this.referrerSpaces = referrerSpaces;
+	}
+
+	/**
+	 * Gets the index for the program, building it if it does not yet exist
+	 * @param program the program
+	 * @param monitor the task monitor
+	 * @return the program's data reference index
+	 * @throws CancelledException if the index construction is cancelled
+	 */
+	public static DataReferenceIndex getIndex(Program program, TaskMonitor monitor)
+			throws CancelledException {
+		synchronized (INDEXES) {
+			DataReferenceIndex index = INDEXES.get(program);
+			if (index == null) {
+				index = build(program, monitor);
+				// an invalidated program keeps its key so the listener is only added once
+				if (!INDEXES.containsKey(program)) {
+					program.addListener(INVALIDATOR);
+				}
+				INDEXES.put(program, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Gets the index for the program only if it has already been built
+	 * @param program the program
+	 * @return the program's data reference index or null if it has not been built
+	 */
+	public static DataReferenceIndex getExistingIndex(Program program) {
+		synchronized (INDEXES) {
+			return INDEXES.get(program);
+		}
+	}
+
+	/**
+	 * Discards the index for the program if one exists.
+	 * The next call to {@link #getIndex(Program, TaskMonitor)} will rebuild it.
+	 * @param program the program
+	 */
+	public static void invalidate(Program program) {
+		synchronized (INDEXES) {
+			if (INDEXES.containsKey(program)) {
+				INDEXES.put(program, null);
+			}
+		}
+	}
+
+	/**
+	 * Gets all the addresses within the data blocks containing a pointer to the address
+	 * @param address the referenced address
+	 * @return the set of referring addresses in ascending order
+	 */
+	public Set<Address> getReferences(Address address) {
+		int i = Arrays.binarySearch(targets, address.getAddressableWordOffset());
+		if (i < 0) {
+			return Collections.emptySet();
+		}
+		Set<Address> result = new LinkedHashSet<>(starts[i + 1] - starts[i]);
+		for (int j = starts[i]; j < starts[i + 1]; j++) {
+			result.add(spaces[referrerSpaces[j]].getAddress(referrers[j]));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of pointers to the address within the data blocks
+	 * @param address the referenced address
+	 * @return the number of referring pointers
+	 */
+	public int getReferenceCount(Address address) {
+		int i = Arrays.binarySearch(targets, address.getAddressableWordOffset());
+		return i < 0 ? 0 : starts[i + 1] - starts[i];
+	}
+
+	private static DataReferenceIndex build(Program program, TaskMonitor monitor)
+			throws CancelledException {
+		DataBlockPointerReader reader = new DataBlockPointerReader(program);
+		LongList rawTargets = new LongList();
+		LongList rawReferrers = new LongList();
+		ByteList rawSpaces = new ByteList();
+		monitor.setMessage("Indexing data references");
+		reader.read(monitor, (space, offset, value) -> {
+			if (reader.isValidPointer(value)) {
+				rawTargets.add(value);
+				rawReferrers.add(offset);
+				rawSpaces.add((byte) space);
+			}
+		});
+		return compact(reader.getSpaces(), rawTargets, rawReferrers, rawSpaces, monitor);
+	}
+
+	private static DataReferenceIndex compact(List<AddressSpace> spaces, LongList rawTargets,
+			LongList rawReferrers, ByteList rawSpaces, TaskMonitor monitor)
+			throws CancelledException {
+		int size = rawTargets.size();
+		long[] sorted = rawTargets.toArray();
+		Arrays.sort(sorted);
+		int unique = 0;
+		for (int i = 0; i < size; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				sorted[unique++] = sorted[i];
+			}
+		}
+		long[] targets = Arrays.copyOf(sorted, unique);
+		int[] starts = new int[unique + 1];
+		int[] indices = new int[size];
+		for (int i = 0; i < size; i++) {
+			monitor.checkCanceled();
+			int index = Arrays.binarySearch(targets, rawTargets.get(i));
+			indices[i] = index;
+			starts[index + 1]++;
+		}
+		for (int i = 0; i < unique; i++) {
+			starts[i + 1] += starts[i];
+		}
+		// referrers were read in ascending order so each bucket stays sorted
+		int[] next = Arrays.copyOf(starts, unique);
+		long[] referrers = new long[size];
+		byte[] referrerSpaces = new byte[size];
+		for (int i = 0; i < size; i++) {
+			int j = next[indices[i]]++;
+			referrers[j] = rawReferrers.get(i);
+			referrerSpaces[j] = rawSpaces.get(i);
+		}
+		return new DataReferenceIndex(
+			spaces.toArray(AddressSpace[]::new), targets, starts, referrers, referrerSpaces);
+	}
+
+	private static final class IndexInvalidator implements DomainObjectListener {
+
+		@Override
+		public void domainObjectChanged(DomainObjectChangedEvent event) {
+			Object source = event.getSource();
+			if (!(source instanceof Program)) {
+				return;
+			}
+			Program program = (Program) source;
+			if (event.containsEvent(DomainObject.DO_OBJECT_CLOSED)) {
+				synchronized (INDEXES) {
+					INDEXES.remove(program);
+				}
+				program.removeListener(this);
+				return;
+			}
+			for (int eventType : MEMORY_EVENTS) {
+				if (event.containsEvent(eventType)) {
+					invalidate(program);
+					return;
+				}
+			}
+		}
+	}
+}
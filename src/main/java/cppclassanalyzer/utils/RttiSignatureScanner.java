@@ -0,0 +1,160 @@
+package cppclassanalyzer.utils;
+
+import java.util.*;
+
+import ghidra.program.model.address.Address;
+import ghidra.program.model.address.AddressSetView;
+import ghidra.program.model.address.AddressSpace;
+import ghidra.program.model.listing.Program;
+import ghidra.util.exception.CancelledException;
+import ghidra.util.task.TaskMonitor;
+
+/**
+ * Scans the data blocks of a {@link Program} for the byte signatures of
+ * GNU typeinfo and vtable candidates in a single pass over each block.
+ * <p>
+ * A typeinfo candidate is a pointer into one of the known {@code __class_type_info}
+ * vtables immediately followed by a valid name pointer. A vtable candidate is an
+ * offset-to-top of 0 immediately followed by a pointer to a known typeinfo.
+ * The candidates still need to be validated before they are applied.
+ */
+public final class RttiSignatureScanner {
+
+	private final Program program;
+	private final AddressSetView set;
+
+	/**
+	 * Constructs a new RttiSignatureScanner
+	 * @param program the program to scan
+	 */
+	public RttiSignatureScanner(Program program) {
+		this(program, null);
+	}
+
+	/**
+	 * Constructs a new RttiSignatureScanner which only scans the parts of the data blocks
+	 * within the address set
+	 * @param program the program to scan
+	 * @param set the address set to scan or null to scan all of the data blocks
+	 */
+	public RttiSignatureScanner(Program program, AddressSetView set) {
+		this.program = program;
+		this.set = set;
+	}
+
+	/**
+	 * Finds all the typeinfo candidates whose vtable pointer points to one of
+	 * the provided typeinfo vtable function tables
+	 * @param vtables the addresses of the typeinfo vtable function tables
+	 * @param monitor the task monitor
+	 * @return the typeinfo candidates in ascending order keyed by the vtable they point to
+	 * @throws CancelledException if the scan is cancelled
+	 */
+	public Map<Address, Set<Address>> findTypeInfoCandidates(Collection<Address> vtables,
+			TaskMonitor monitor) throws CancelledException {
+		Map<Long, Address> keys = getKeys(vtables);
+		Map<Address, Set<Address>> result = new HashMap<>(vtables.size());
+		for (Address vtable : vtables) {
+			result.put(vtable, new LinkedHashSet<>());
+		}
+		long[] targets = toSortedArray(keys.keySet());
+		DataBlockPointerReader reader = new DataBlockPointerReader(program, set);
+		PairScanner scanner = new PairScanner(reader.getPointerSize()) {
+
+			@Override
+			boolean matches(long first, long second) {
+				return Arrays.binarySearch(targets, first) >= 0 && reader.isValidPointer(second);
+			}
+		};
+		monitor.setMessage("Scanning for typeinfo candidates");
+		reader.read(monitor, scanner);
+		List<AddressSpace> spaces = reader.getSpaces();
+		for (int i = 0; i < scanner.matches.size(); i++) {
+			Address vtable = keys.get(scanner.firstValues.get(i));
+			Address address = spaces.get(scanner.spaces.get(i)).getAddress(scanner.matches.get(i));
+			result.get(vtable).add(address);
+		}
+		return result;
+	}
+
+	/**
+	 * Finds all the vtable candidates containing a pointer to one of the provided typeinfo
+	 * @param typeinfo the addresses of the known typeinfo
+	 * @param monitor the task monitor
+	 * @return the addresses of the candidates offset-to-top in ascending order
+	 * @throws CancelledException if the scan is cancelled
+	 */
+	public Set<Address> findVtableCandidates(Collection<Address> typeinfo, TaskMonitor monitor)
+			throws CancelledException {
+		long[] targets = toSortedArray(getKeys(typeinfo).keySet());
+		DataBlockPointerReader reader = new DataBlockPointerReader(program, set);
+		PairScanner scanner = new PairScanner(reader.getPointerSize()) {
+
+			@Override
+			boolean matches(long first, long second) {
+				return first == 0 && Arrays.binarySearch(targets, second) >= 0;
+			}
+		};
+		monitor.setMessage("Scanning for vtable candidates");
+		reader.read(monitor, scanner);
+		List<AddressSpace> spaces = reader.getSpaces();
+		Set<Address> result = new LinkedHashSet<>(scanner.matches.size());
+		for (int i = 0; i < scanner.matches.size(); i++) {
+			result.add(spaces.get(scanner.spaces.get(i)).getAddress(scanner.matches.get(i)));
+		}
+		return result;
+	}
+
+	private static Map<Long, Address> getKeys(Collection<Address> addresses) {
+		Map<Long, Address> keys = new HashMap<>(addresses.size());
+		for (Address address : addresses) {
+			keys.put(address.getAddressableWordOffset(), address);
+		}
+		return keys;
+	}
+
+	private static long[] toSortedArray(Collection<Long> values) {
+		long[] result = values.stream()
+			.mapToLong(Long::longValue)
+			.toArray();
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Matches two adjacent pointers and records the address of the first
+	 */
+	private abstract static class PairScanner implements DataBlockPointerReader.PointerVisitor {
+
+		private final int pointerSize;
+		private final DataBlockPointerReader.LongList matches =
+			new DataBlockPointerReader.LongList();
+		private final DataBlockPointerReader.LongList firstValues =
+			new DataBlockPointerReader.LongList();
+		private final DataBlockPointerReader.ByteList spaces =
+			new DataBlockPointerReader.ByteList();
+		private int previousSpace = -1;
+		private long previousOffset;
+		private long previousValue;
+
+		PairScanner(int pointerSize) {
+			this.pointerSize = pointerSize;
+		}
+
+		abstract boolean matches(long first, long second);
+
+		@Override
+		public void visit(int space, long offset, long value) {
+			if (space == previousSpace && previousOffset + pointerSize == offset) {
+				if (matches(previousValue, value)) {
+					matches.add(previousOffset);
+					firstValues.add(previousValue);
+					spaces.add((byte) space);
+				}
+			}
+			previousSpace = space;
+			previousOffset = offset;
+			previousValue = value;
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package ghidra.app.cmd.data.rtti.gcc;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import ghidra.app.util.demangler.gnu.GnuDemanglerNativeProcess;
+import ghidra.app.util.demangler.gnu.GnuDemanglerOptions;
+import ghidra.framework.Application;
+import ghidra.framework.OperatingSystem;
+import ghidra.framework.Platform;
+
+/**
+ * Demangles batches of GNU mangled names through a single native demangler process.
+ * <p>
+ * All the names in a batch are written to the process without waiting for each reply,
+ * which removes the per name round trip latency of the {@code GnuDemanglerNativeProcess}.
+ * The raw demangled strings are kept in an LRU cache which is shared by every program
+ * in the tool.
+ * <p>
+ * Each reply is awaited for at most {@value #READ_TIMEOUT_SECONDS} seconds. If the process
+ * fails or stalls it is destroyed and the remaining names are demangled individually
+ * by the {@code GnuDemanglerNativeProcess}.
+ */
+public final class BatchGnuDemangler {
+
+	private static final int CACHE_SIZE = 1 << 17;
+	private static final long READ_TIMEOUT_SECONDS = 10;
+	private static final BatchGnuDemangler INSTANCE = new BatchGnuDemangler();
+
+	private final Map<String, String> cache = new LinkedHashMap<>(16, 0.75f, true) {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private Process process;
+	private BufferedWriter writer;
+	private BufferedReader reader;
+	private ExecutorService readExecutor;
+
+	private BatchGnuDemangler() {
+	}
+
+	/**
+	 * Gets the shared BatchGnuDemangler
+	 * @return the batch demangler
+	 */
+	public static BatchGnuDemangler getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Gets the unparsed demangled output for the mangled name
+	 * @param mangled the mangled name
+	 * @return the unmodified demangled string
+	 * @throws IOException if an error occurs from the native demangler process
+	 */
+	public String demangle(String mangled) throws IOException {
+		return demangle(List.of(mangled)).get(mangled);
+	}
+
+	/**
+	 * Gets the unparsed demangled output for all of the mangled names
+	 * @param names the mangled names
+	 * @return a map of the mangled names to their unmodified demangled strings
+	 * @throws IOException if an error occurs from the native demangler process
+	 */
+	public synchronized Map<String, String> demangle(Collection<String> names)
+			throws IOException {
+		Map<String, String> result = new HashMap<>(names.size());
+		List<String> misses = new ArrayList<>();
+		for (String name : names) {
+			String demangled = cache.get(name);
+			if (demangled != null) {
+				result.put(name, demangled);
+			} else if (!result.containsKey(name) && isValidInput(name)) {
+				result.put(name, null);
+				misses.add(name);
+			}
+		}
+		if (misses.isEmpty()) {
+			return result;
+		}
+		Map<String, String> demangled;
+		try {
+			demangled = doDemangle(misses);
+		} catch (IOException e) {
+			stop();
+			demangled = fallbackDemangle(misses);
+		}
+		for (Map.Entry<String, String> entry : demangled.entrySet()) {
+			cache.put(entry.getKey(), entry.getValue());
+			result.put(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	private static Map<String, String> fallbackDemangle(List<String> names)
+			throws IOException {
+		GnuDemanglerNativeProcess process =
+			GnuDemanglerNativeProcess.getDemanglerNativeProcess();
+		Map<String, String> result = new HashMap<>(names.size());
+		for (String name : names) {
+			result.put(name, process.demangle(name).trim());
+		}
+		return result;
+	}
+
+	private static boolean isValidInput(String name) {
+		// the native process is line based
+		return !name.isEmpty() && name.indexOf('\n') == -1 && name.indexOf('\r') == -1;
+	}
+
+	private Map<String, String> doDemangle(List<String> names) throws IOException {
+		if (process == null || !process.isAlive()) {
+			start();
+		}
+		BufferedWriter out = writer;
+		Thread sender = null;
+		IOException[] sendError = new IOException[1];
+		if (names.size() == 1) {
+			send(out, names);
+		} else {
+			// the replies must be drained while sending or both pipes may fill up
+			sender = new Thread(() -> {
+				try {
+					send(out, names);
+				} catch (IOException e) {
+					sendError[0] = e;
+				}
+			}, getClass().getSimpleName());
+			sender.setDaemon(true);
+			sender.start();
+		}
+		Map<String, String> result = new HashMap<>(names.size());
+		boolean complete = false;
+		try {
+			for (String name : names) {
+				String line = readLine();
+				if (line == null) {
+					throw new IOException("Demangler process terminated unexpectedly");
+				}
+				result.put(name, line.trim());
+			}
+			complete = true;
+		} finally {
+			if (!complete) {
+				// releases a sender blocked on the full pipe of a stalled process
+				stop();
+			}
+			if (sender != null) {
+				try {
+					sender.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		if (sendError[0] != null) {
+			throw sendError[0];
+		}
+		return result;
+	}
+
+	private String readLine() throws IOException {
+		Future<String> line = readExecutor.submit(reader::readLine);
+		try {
+			return line.get(READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			// the blocked read is released once the process is destroyed
+			throw new IOException("Demangler process did not respond", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+	}
+
+	private static void send(BufferedWriter out, List<String> names) throws IOException {
+		for (String name : names) {
+			out.write(name);
+			out.newLine();
+		}
+		out.flush();
+	}
+
+	private void start() throws IOException {
+		stop();
+		String executable = GnuDemanglerOptions.GNU_DEMANGLER_DEFAULT;
+		if (Platform.CURRENT_PLATFORM.getOperatingSystem() == OperatingSystem.WINDOWS) {
+			executable += ".exe";
+		}
+		File file = Application.getOSFile(executable);
+		process = new ProcessBuilder(file.getAbsolutePath())
+			.redirectError(ProcessBuilder.Redirect.DISCARD)
+			.start();
+		writer = new BufferedWriter(
+			new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+		reader = new BufferedReader(
+			new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+		readExecutor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, getClass().getSimpleName() + " Reader");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Terminates the native demangler process and clears the cache.
+	 * The process is started again by the next call to demangle.
+	 */
+	public synchronized void dispose() {
+		stop();
+		cache.clear();
+	}
+
+	private void stop() {
+		if (process != null) {
+			process.destroy();
+			readExecutor.shutdownNow();
+			process = null;
+			writer = null;
+			reader = null;
+			readExecutor = null;
+		}
+	}
+}
@@ -113,7 +113,17 @@ public class ClassTypeInfoUtils {
 		return true;
 	}
 
-	private static Vtable getValidVtable(Program program, Set<Address> references,
+	/**
+	 * Gets the first valid vtable for the typeinfo from the provided references.
+	 * Construction vtables are skipped.
+	 * @param program the program containing the vtable
+	 * @param references the addresses of the candidate typeinfo pointers in ascending order
+	 * @param monitor the taskmonitor to be used while validating the vtables
+	 * @param typeinfo the typeinfo to find the vtable for
+	 * @return the vtable or {@link Vtable#NO_VTABLE} if none of the references are valid
+	 * @throws CancelledException if the validation is cancelled
+	 */
+	public static Vtable getValidVtable(Program program, Set<Address> references,
 		TaskMonitor monitor, ClassTypeInfo typeinfo) throws CancelledException {
 		Listing listing = program.getListing();
 		Memory mem = program.getMemory();
@@ -12,7 +12,8 @@ import docking.Tool;
 import ghidra.program.model.data.DataType;
 import ghidra.app.cmd.data.rtti.GnuVtable;
 import ghidra.app.util.demangler.*;
-import ghidra.app.util.demangler.gnu.GnuDemanglerNativeProcess;
+import ghidra.app.util.demangler.gnu.DemanglerParseException;
+import ghidra.app.util.demangler.gnu.GnuDemanglerParser;
 import ghidra.framework.main.AppInfo;
 import ghidra.framework.model.DomainFile;
 import ghidra.framework.model.Project;
@@ -26,7 +27,6 @@ import ghidra.program.model.listing.Library;
 import ghidra.program.model.listing.Program;
 import ghidra.program.model.data.*;
 import ghidra.program.model.lang.Processor;
-import ghidra.program.util.ProgramMemoryUtil;
 import ghidra.util.datastruct.IntSet;
 import ghidra.util.exception.AssertException;
 import ghidra.util.exception.CancelledException;
@@ -34,6 +34,7 @@ import ghidra.util.task.DummyCancellableTaskMonitor;
 import ghidra.util.task.TaskMonitor;
 
 import cppclassanalyzer.utils.CppClassAnalyzerUtils;
+import cppclassanalyzer.utils.DataReferenceIndex;
 import cppclassanalyzer.utils.LanguageIdHandler;
 
 import static ghidra.app.util.datatype.microsoft.MSDataTypeUtils.getAbsoluteAddress;
@@ -277,7 +278,8 @@ public final class GnuUtils {
 	}
 
 	/**
-	 * Gets all direct data references to the specified address
+	 * Gets all direct data references to the specified address.
+	 * The data blocks are only scanned once per program, see {@link DataReferenceIndex}.
 	 * @param program the program containing the data
 	 * @param address the address of the data
 	 * @param monitor the task monitor
@@ -288,11 +290,7 @@ public final class GnuUtils {
 			TaskMonitor monitor) throws CancelledException {
 		if (address == null)
 			return Collections.emptySet();
-		List<MemoryBlock> dataBlocks = getAllDataBlocks(program);
-		int pointerAlignment =
-			program.getDataTypeManager().getDataOrganization().getDefaultPointerAlignment();
-		return ProgramMemoryUtil.findDirectReferences(program, dataBlocks,
-			pointerAlignment, address, monitor);
+		return DataReferenceIndex.getIndex(program, monitor).getReferences(address);
 	}
 
 	/**
@@ -362,20 +360,33 @@ public final class GnuUtils {
 	}
 
 	/**
-	 * Gets the unparsed demangled output from the native GnuDemangler
+	 * Gets the unparsed demangled output from the native GnuDemangler.
+	 * The output is cached, see {@link BatchGnuDemangler}.
 	 * @param mangled the mangled input for the demangler
 	 * @return the unmodified demangled string
 	 * @throws IOException if an error occurs from the native GnuDemangler process
 	 */
 	public static String getRawDemangledString(String mangled) throws IOException {
-		GnuDemanglerNativeProcess process = GnuDemanglerNativeProcess.getDemanglerNativeProcess();
-		return process.demangle(mangled).trim();
+		String result = BatchGnuDemangler.getInstance().demangle(mangled);
+		return result != null ? result : mangled;
+	}
+
+	private static Demangled parseDemangled(String mangled, String output) {
+		try {
+			Demangled demangled = new GnuDemanglerParser().parse(mangled, output);
+			if (demangled != null) {
+				return demangled;
+			}
+		} catch (DemanglerParseException e) {
+			// let the demangler decide
+		}
+		return demangle(mangled);
 	}
 
 	public static Demangled getSpecialDemangled(String mangled) {
 		try {
-			Demangled demangled = demangle(mangled);
 			String output = GnuUtils.getRawDemangledString(mangled);
+			Demangled demangled = parseDemangled(mangled, output);
 			Matcher matcher = DESCRIPTIVE_PREFIX_PATTERN.matcher(output);
 			if (!matcher.matches()) {
 				throw new AssertException("Regex should have matched: " + output);
@@ -0,0 +1,216 @@
+package ghidra.app.cmd.data.rtti.gcc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import ghidra.framework.model.DomainObject;
+import ghidra.framework.model.DomainObjectChangedEvent;
+import ghidra.framework.model.DomainObjectListener;
+import ghidra.program.model.address.Address;
+import ghidra.program.model.address.AddressSpace;
+import ghidra.program.model.listing.Program;
+import ghidra.program.util.ChangeManager;
+
+/**
+ * A bounded per-program cache of the identifier strings and typenames resolved by
+ * {@link TypeInfoUtils#getIDString(Program, Address)} and
+ * {@link TypeInfoUtils#getTypeName(Program, Address)}.
+ * <p>
+ * The strings also depend on the listing, relocations and symbols of the program,
+ * so they are only cached for the duration of an analysis session started with
+ * {@link #startSession(Program)}. Outside of a session every lookup is resolved again.
+ * Only valid strings are cached since an invalid typeinfo may become valid once
+ * the analysis has created its data. The cache is also discarded when the program's
+ * memory changes and on undo or redo.
+ */
+public final class TypeInfoStringCache {
+
+	private static final int CACHE_SIZE = 1 << 16;
+
+	private static final int[] INVALIDATING_EVENTS = new int[] {
+		ChangeManager.DOCR_MEMORY_BLOCK_ADDED,
+		ChangeManager.DOCR_MEMORY_BLOCK_REMOVED,
+		ChangeManager.DOCR_MEMORY_BLOCK_CHANGED,
+		ChangeManager.DOCR_MEMORY_BLOCK_MOVED,
+		ChangeManager.DOCR_MEMORY_BLOCK_SPLIT,
+		ChangeManager.DOCR_MEMORY_BLOCKS_JOINED,
+		ChangeManager.DOCR_MEMORY_BYTES_CHANGED,
+		ChangeManager.DOCR_IMAGE_BASE_CHANGED,
+		DomainObject.DO_OBJECT_RESTORED
+	};
+
+	private static final Map<Program, TypeInfoStringCache> CACHES = new WeakHashMap<>();
+	private static final CacheInvalidator INVALIDATOR = new CacheInvalidator();
+
+	// the cache must not reference the program as it is a value in a WeakHashMap
+	private final Map<AddressSpace, LongStringCache> idStrings = new HashMap<>();
+	private final Map<AddressSpace, LongStringCache> typeNames = new HashMap<>();
+
+	private TypeInfoStringCache() {
+	}
+
+	/**
+	 * Gets the identifier string for the typeinfo at the specified address
+	 * @param program the program containing the typeinfo
+	 * @param address the address of the typeinfo
+	 * @return the typeinfo's identifier string or "" if invalid
+	 * @see TypeInfoUtils#getIDString(Program, Address)
+	 */
+	public static String getIDString(Program program, Address address) {
+		TypeInfoStringCache session = getCache(program);
+		if (session == null) {
+			return TypeInfoUtils.getIDString(program, address);
+		}
+		LongStringCache cache = session.getTable(true, address);
+		String result = cache.get(address.getOffset());
+		if (result == null) {
+			result = TypeInfoUtils.getIDString(program, address);
+			if (!result.isEmpty()) {
+				cache.put(address.getOffset(), result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the typename for the typeinfo at the specified address
+	 * @param program the program containing the typeinfo
+	 * @param address the address of the typeinfo
+	 * @return the typeinfo's typename or "" if invalid
+	 * @see TypeInfoUtils#getTypeName(Program, Address)
+	 */
+	public static String getTypeName(Program program, Address address) {
+		TypeInfoStringCache session = getCache(program);
+		if (session == null) {
+			return TypeInfoUtils.getTypeName(program, address);
+		}
+		LongStringCache cache = session.getTable(false, address);
+		String result = cache.get(address.getOffset());
+		if (result == null) {
+			result = TypeInfoUtils.getTypeName(program, address);
+			if (!result.isEmpty()) {
+				cache.put(address.getOffset(), result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Starts caching the strings for the program with an empty cache
+	 * @param program the program
+	 */
+	public static void startSession(Program program) {
+		synchronized (CACHES) {
+			// a program keeps its key between sessions so the listener is only added once
+			if (!CACHES.containsKey(program)) {
+				program.addListener(INVALIDATOR);
+			}
+			CACHES.put(program, new TypeInfoStringCache());
+		}
+	}
+
+	/**
+	 * Discards the cached strings for the program and stops caching them
+	 * @param program the program
+	 */
+	public static void endSession(Program program) {
+		synchronized (CACHES) {
+			if (CACHES.containsKey(program)) {
+				CACHES.put(program, null);
+			}
+		}
+	}
+
+	/**
+	 * Discards all the cached strings for the program.
+	 * The current session, if any, continues with an empty cache.
+	 * @param program the program
+	 */
+	public static void invalidate(Program program) {
+		synchronized (CACHES) {
+			if (CACHES.get(program) != null) {
+				CACHES.put(program, new TypeInfoStringCache());
+			}
+		}
+	}
+
+	private static TypeInfoStringCache getCache(Program program) {
+		synchronized (CACHES) {
+			return CACHES.get(program);
+		}
+	}
+
+	private synchronized LongStringCache getTable(boolean id, Address address) {
+		Map<AddressSpace, LongStringCache> tables = id ? idStrings : typeNames;
+		return tables.computeIfAbsent(
+			address.getAddressSpace(), k -> new LongStringCache(CACHE_SIZE));
+	}
+
+	/**
+	 * A direct mapped cache from a long key to a string.
+	 * Colliding keys replace each other so the size never exceeds the capacity.
+	 * The entries are immutable so concurrent readers never observe a torn entry.
+	 */
+	private static final class LongStringCache {
+
+		private final Entry[] entries;
+		private final int mask;
+
+		LongStringCache(int capacity) {
+			this.entries = new Entry[capacity];
+			this.mask = capacity - 1;
+		}
+
+		String get(long key) {
+			Entry entry = entries[index(key)];
+			return entry != null && entry.key == key ? entry.value : null;
+		}
+
+		void put(long key, String value) {
+			entries[index(key)] = new Entry(key, value);
+		}
+
+		private int index(long key) {
+			// typeinfo are pointer aligned so mix the high bits into the low bits
+			long hash = key * 0x9e3779b97f4a7c15L;
+			return (int) (hash >>> 32) & mask;
+		}
+
+		private static final class Entry {
+
+			final long key;
+			final String value;
+
+			Entry(long key, String value) {
+				this.key = key;
+				this.value = value;
+			}
+		}
+	}
+
+	private static final class CacheInvalidator implements DomainObjectListener {
+
+		@Override
+		public void domainObjectChanged(DomainObjectChangedEvent event) {
+			Object source = event.getSource();
+			if (!(source instanceof Program)) {
+				return;
+			}
+			Program program = (Program) source;
+			if (event.containsEvent(DomainObject.DO_OBJECT_CLOSED)) {
+				synchronized (CACHES) {
+					CACHES.remove(program);
+				}
+				program.removeListener(this);
+				return;
+			}
+			for (int eventType : INVALIDATING_EVENTS) {
+				if (event.containsEvent(eventType)) {
+					invalidate(program);
+					return;
+				}
+			}
+		}
+	}
+}
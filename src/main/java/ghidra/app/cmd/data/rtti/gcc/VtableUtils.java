@@ -4,6 +4,7 @@ import java.util.*;
 
 import cppclassanalyzer.data.ProgramClassTypeInfoManager;
 import cppclassanalyzer.utils.CppClassAnalyzerUtils;
+import cppclassanalyzer.utils.DataReferenceIndex;
 
 import ghidra.program.model.address.Address;
 import ghidra.program.model.address.AddressOverflowException;
@@ -303,6 +304,30 @@ public class VtableUtils {
 			return VttModel.INVALID;
 		}
 		Set<Address> references = GnuUtils.getDirectDataReferences(program, tableAddresses[0]);
+		return getVttModel(program, vtable, references);
+	}
+
+	/**
+	 * Gets the VttModel for the vtable using an already built data reference index
+	 * @param program the program containing the vtable
+	 * @param vtable the vtable
+	 * @param index the program's data reference index
+	 * @return the vtable's VttModel or {@link VttModel#INVALID} if it has none
+	 */
+	public static VttModel getVttModel(Program program, GnuVtable vtable,
+			DataReferenceIndex index) {
+		if (vtable.getTypeInfo().getTypeName().contains(TypeInfoModel.STRUCTURE_NAME)) {
+			return VttModel.INVALID;
+		}
+		Address[] tableAddresses = vtable.getTableAddresses();
+		if (tableAddresses.length == 0) {
+			return VttModel.INVALID;
+		}
+		return getVttModel(program, vtable, index.getReferences(tableAddresses[0]));
+	}
+
+	private static VttModel getVttModel(Program program, GnuVtable vtable,
+			Set<Address> references) {
 		if (references.isEmpty()) {
 			return VttModel.INVALID;
 		}
@@ -41,13 +41,35 @@ public abstract class AbstractTypeInfoProgramBuilder extends ProgramBuilder {
 
 	protected AbstractTypeInfoProgramBuilder(String languageName, String compilerSpecID)
 			throws Exception {
+		this(languageName, compilerSpecID, true);
+	}
+
+	/**
+	 * Constructs a new builder
+	 * @param languageName the language name
+	 * @param compilerSpecID the compiler spec id
+	 * @param setup false if the subclass calls {@link #setupProgram()} once it is initialized
+	 * @throws Exception if the program cannot be created
+	 */
+	protected AbstractTypeInfoProgramBuilder(String languageName, String compilerSpecID,
+			boolean setup) throws Exception {
 		super("TestProgram", languageName, compilerSpecID, null);
-		setupProgram();
+		if (setup) {
+			setupProgram();
+		}
 	}
 
 	protected abstract void setupMemory();
 
-	private void setupProgram() throws Exception {
+	/**
+	 * Checks if the typeinfo should be resolved by the manager once the program is built
+	 * @return true to resolve the typeinfo
+	 */
+	protected boolean shouldBuildTypes() {
+		return true;
+	}
+
+	protected final void setupProgram() throws Exception {
 		setupMemory();
 		Program program = getProgram();
 		TestEnv env = new TestEnv();
@@ -96,7 +118,9 @@ public abstract class AbstractTypeInfoProgramBuilder extends ProgramBuilder {
 		for (Long offset : relocationMap.keySet()) {
 			table.add(addr(offset), 1, null, null, relocationMap.get(offset));
 		}
-		buildTypes();
+		if (shouldBuildTypes()) {
+			buildTypes();
+		}
 		endTransaction();
 	}
 
@@ -0,0 +1,185 @@
+package ghidra.app.cmd.data.rtti.gcc.builder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import ghidra.program.model.address.Address;
+
+/**
+ * Builds an x86-64 program containing generated {@code __class_type_info}
+ * without any vtables. By default {@value #TYPE_COUNT} types are generated
+ * and resolved by the program's manager. The types may instead be generated as
+ * a hierarchy of {@code __si_class_type_info} in which type {@code i} is derived
+ * from type {@code (i - 1) / 2}.
+ */
+public class GeneratedTypeInfoProgramBuilder extends AbstractTypeInfoProgramBuilder {
+
+	public static final int TYPE_COUNT = 1 << 15;
+
+	/** The maximum number of types which can be generated */
+	public static final int MAX_TYPE_COUNT = 100000;
+
+	private static final long TEXT_OFFSET = 0x00100000L;
+	private static final long TYPEINFO_OFFSET = 0x00200000L;
+	private static final long NAME_OFFSET = 0x00500000L;
+	// outside of memory so the relocation determines the type
+	private static final long CLASS_TYPEINFO_VTABLE = 0x00800010L;
+	private static final long SI_CLASS_TYPEINFO_VTABLE = 0x00800030L;
+	private static final int TYPEINFO_SIZE = 16;
+	private static final int SI_TYPEINFO_SIZE = 24;
+	private static final int NAME_SIZE = 8;
+	private static final String CLASS_TYPEINFO_VTABLE_SYMBOL =
+		"_ZTVN10__cxxabiv117__class_type_infoE";
+	private static final String SI_CLASS_TYPEINFO_VTABLE_SYMBOL =
+		"_ZTVN10__cxxabiv120__si_class_type_infoE";
+
+	private static final Long[] functionOffsets = new Long[] { TEXT_OFFSET };
+
+	private static final String returnString = "c3";
+
+	private static final String fDescriptors = "";
+
+	private final int typeCount;
+	private final boolean resolve;
+	private final int typeInfoSize;
+	private final Map<Long, String> typeMap;
+	private final Map<Long, String> nameMap;
+	private final Map<Long, String> relocationMap;
+
+	public GeneratedTypeInfoProgramBuilder() throws Exception {
+		this(TYPE_COUNT, true);
+	}
+
+	/**
+	 * Constructs a new builder
+	 * @param typeCount the number of types to generate
+	 * @param resolve true if the types should be resolved once the program is built
+	 * @throws Exception if the program cannot be built
+	 */
+	public GeneratedTypeInfoProgramBuilder(int typeCount, boolean resolve) throws Exception {
+		this(typeCount, resolve, false);
+	}
+
+	/**
+	 * Constructs a new builder
+	 * @param typeCount the number of types to generate
+	 * @param resolve true if the types should be resolved once the program is built
+	 * @param derived true if every type but the first should be derived from another
+	 * @throws Exception if the program cannot be built
+	 */
+	public GeneratedTypeInfoProgramBuilder(int typeCount, boolean resolve, boolean derived)
+			throws Exception {
+		super("x86:LE:64:default", "gcc", false);
+		if (typeCount < 0 || typeCount > MAX_TYPE_COUNT) {
+			throw new IllegalArgumentException("Invalid type count " + typeCount);
+		}
+		this.typeCount = typeCount;
+		this.resolve = resolve;
+		this.typeInfoSize = derived ? SI_TYPEINFO_SIZE : TYPEINFO_SIZE;
+		this.typeMap = new HashMap<>(typeCount);
+		this.nameMap = new HashMap<>(typeCount);
+		this.relocationMap = new HashMap<>(typeCount);
+		for (int i = 0; i < typeCount; i++) {
+			long typeOffset = TYPEINFO_OFFSET + (long) i * typeInfoSize;
+			long nameOffset = NAME_OFFSET + (long) i * NAME_SIZE;
+			nameMap.put(nameOffset, String.format("6C%05d", i));
+			if (derived && i > 0) {
+				long baseOffset = TYPEINFO_OFFSET + (long) ((i - 1) / 2) * typeInfoSize;
+				typeMap.put(typeOffset, toBytes(SI_CLASS_TYPEINFO_VTABLE)
+					+ toBytes(nameOffset) + toBytes(baseOffset));
+				relocationMap.put(typeOffset, SI_CLASS_TYPEINFO_VTABLE_SYMBOL);
+			} else {
+				typeMap.put(typeOffset, toBytes(CLASS_TYPEINFO_VTABLE) + toBytes(nameOffset));
+				relocationMap.put(typeOffset, CLASS_TYPEINFO_VTABLE_SYMBOL);
+			}
+		}
+		setupProgram();
+	}
+
+	/**
+	 * Gets the number of generated typeinfo
+	 * @return the type count
+	 */
+	public int getTypeCount() {
+		return typeCount;
+	}
+
+	/**
+	 * Gets the address of the generated typeinfo
+	 * @param index the index of the typeinfo
+	 * @return the typeinfo's address
+	 */
+	public Address getTypeInfoAddress(int index) {
+		return addr(TYPEINFO_OFFSET + (long) index * typeInfoSize);
+	}
+
+	/**
+	 * Gets the size of each generated typeinfo
+	 * @return the typeinfo size
+	 */
+	public int getTypeInfoSize() {
+		return typeInfoSize;
+	}
+
+	private static String toBytes(long value) {
+		StringBuilder builder = new StringBuilder(16);
+		for (int i = 0; i < Long.BYTES; i++) {
+			builder.append(String.format("%02x", (value >>> (i * 8)) & 0xff));
+		}
+		return builder.toString();
+	}
+
+	@Override
+	protected boolean shouldBuildTypes() {
+		return resolve;
+	}
+
+	@Override
+	protected Map<Long, String> getTypeInfoMap() {
+		return typeMap;
+	}
+
+	@Override
+	protected Map<Long, String> getTypeNameMap() {
+		return nameMap;
+	}
+
+	@Override
+	protected Map<Long, String> getVtableMap() {
+		return Collections.emptyMap();
+	}
+
+	@Override
+	protected Map<Long, String> getVttMap() {
+		return Collections.emptyMap();
+	}
+
+	@Override
+	protected Map<Long, String> getRelocationMap() {
+		return relocationMap;
+	}
+
+	@Override
+	protected Long[] getFunctionOffsets() {
+		return functionOffsets;
+	}
+
+	@Override
+	protected String getReturnInstruction() {
+		return returnString;
+	}
+
+	@Override
+	protected String getFunctionDescriptors() {
+		return fDescriptors;
+	}
+
+	@Override
+	protected void setupMemory() {
+		createMemory(".text", Long.toHexString(TEXT_OFFSET), 0x100);
+		int count = Math.max(1, typeCount);
+		createMemory(".data.rel.ro", Long.toHexString(TYPEINFO_OFFSET), count * typeInfoSize);
+		createMemory(".rodata", Long.toHexString(NAME_OFFSET), count * NAME_SIZE);
+	}
+}
@@ -13,6 +13,7 @@ import ghidra.program.model.data.Structure;
 import ghidra.program.model.listing.Program;
 import ghidra.program.model.mem.MemBuffer;
 import ghidra.app.cmd.data.rtti.TypeInfo;
+import ghidra.app.cmd.data.rtti.gcc.TypeInfoStringCache;
 import ghidra.app.cmd.data.rtti.gcc.TypeInfoUtils;
 import ghidra.app.cmd.data.rtti.gcc.typeinfo.*;
 
@@ -105,7 +106,7 @@ public class TypeInfoFactory {
 	 * or null if none exists.
 	 */
 	public static TypeInfo getTypeInfo(Program program, Address address) {
-			String baseTypeName = TypeInfoUtils.getIDString(program, address);
+			String baseTypeName = TypeInfoStringCache.getIDString(program, address);
 			if (!COPY_MAP.containsKey(baseTypeName)) {
 				// invalid typeinfo
 				return null;
@@ -134,7 +135,7 @@ public class TypeInfoFactory {
 	 */
 	public static boolean isTypeInfo(Program program, Address address) {
 		try {
-			return COPY_MAP.containsKey(TypeInfoUtils.getIDString(program, address));
+			return COPY_MAP.containsKey(TypeInfoStringCache.getIDString(program, address));
 		} catch (AddressOutOfBoundsException e) {
 			return false;
 		}
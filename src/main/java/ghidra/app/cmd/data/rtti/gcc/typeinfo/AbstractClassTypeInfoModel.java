@@ -40,7 +40,6 @@ public abstract class AbstractClassTypeInfoModel extends AbstractTypeInfoModel
 
 	protected AbstractClassTypeInfoModel(Program program, Address address) {
 		super(program, address);
-		builder = new GccCppClassBuilder(this);
 	}
 
 	@Override
@@ -48,6 +47,9 @@ public abstract class AbstractClassTypeInfoModel extends AbstractTypeInfoModel
 		if (getTypeName().contains(TypeInfoModel.STRUCTURE_NAME)) {
 			return manager.getDataType(getTypeName());
 		}
+		if (builder == null) {
+			builder = new GccCppClassBuilder(this);
+		}
 		return builder.getDataType();
 	}
 
@@ -96,7 +98,7 @@ public abstract class AbstractClassTypeInfoModel extends AbstractTypeInfoModel
 
 	@Override
 	public GhidraClass getGhidraClass() {
-		if (!(namespace instanceof GhidraClass)) {
+		if (!(getNamespace() instanceof GhidraClass)) {
 			try {
 				Integer id = null;
 				if (program.getCurrentTransaction() == null) {
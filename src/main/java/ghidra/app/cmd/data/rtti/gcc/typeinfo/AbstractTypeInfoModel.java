@@ -4,6 +4,7 @@ import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
 import ghidra.app.cmd.data.rtti.TypeInfo;
+import ghidra.app.cmd.data.rtti.gcc.TypeInfoStringCache;
 import ghidra.app.cmd.data.rtti.gcc.TypeInfoUtils;
 import ghidra.app.util.demangler.DemangledDataType;
 import ghidra.app.util.demangler.DemangledFunctionReference;
@@ -57,15 +58,14 @@ abstract class AbstractTypeInfoModel implements TypeInfo {
 		this.program = program;
 		this.address = address;
 		this.buf = new MemoryBufferImpl(program.getMemory(), address);
-		this.typeName = TypeInfoUtils.getTypeName(program, address);
-		this.namespace = TypeInfoUtils.getNamespaceFromTypeName(program, this);
+		this.typeName = TypeInfoStringCache.getTypeName(program, address);
 	}
 
 	protected static boolean isValid(Program program, Address address, String id) {
-		if (!TypeInfoUtils.getIDString(program, address).equals(id)) {
+		if (!TypeInfoStringCache.getIDString(program, address).equals(id)) {
 			return false;
 		}
-		if (TypeInfoUtils.getTypeName(program, address).equals(DEFAULT_TYPENAME)) {
+		if (TypeInfoStringCache.getTypeName(program, address).equals(DEFAULT_TYPENAME)) {
 			return false;
 		}
 		return true;
@@ -86,6 +86,10 @@ abstract class AbstractTypeInfoModel implements TypeInfo {
 
 	@Override
 	public Namespace getNamespace() {
+		if (namespace == null) {
+			// created on first use so constructing a model never modifies the program
+			namespace = TypeInfoUtils.getNamespaceFromTypeName(program, this);
+		}
 		return namespace;
 	}
 
@@ -102,7 +106,7 @@ abstract class AbstractTypeInfoModel implements TypeInfo {
 
 	@Override
 	public final String getName() {
-		return namespace.getName();
+		return getNamespace().getName();
 	}
 
 	protected Structure getDataType(String dtName, String description) {
@@ -1,6 +1,12 @@
 package ghidra.app.plugin.prototype;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import ghidra.util.task.CancelOnlyWrappingTaskMonitor;
 import ghidra.util.task.TaskMonitor;
@@ -11,18 +17,25 @@ import ghidra.docking.settings.SettingsDefinition;
 import ghidra.app.services.AbstractAnalyzer;
 import ghidra.app.services.AnalysisPriority;
 import cppclassanalyzer.data.ProgramClassTypeInfoManager;
+import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
 import cppclassanalyzer.service.ClassTypeInfoManagerService;
 import cppclassanalyzer.utils.CppClassAnalyzerUtils;
+import cppclassanalyzer.utils.RttiSignatureScanner;
 
 import ghidra.program.model.address.Address;
 import ghidra.program.model.address.AddressSet;
 import ghidra.program.model.symbol.Namespace;
 import ghidra.program.model.symbol.SourceType;
+import ghidra.program.model.symbol.Symbol;
+import ghidra.program.model.symbol.SymbolTable;
 import ghidra.program.model.listing.Data;
 import ghidra.program.model.listing.Function;
+import ghidra.program.model.listing.FunctionManager;
 import ghidra.program.model.listing.Program;
+import ghidra.program.model.mem.Memory;
 import ghidra.program.model.mem.MemoryBlock;
 import ghidra.program.model.reloc.Relocation;
+import ghidra.program.model.reloc.RelocationTable;
 import ghidra.app.cmd.data.rtti.gcc.typeinfo.*;
 import ghidra.util.Msg;
 import ghidra.util.exception.CancelledException;
@@ -74,9 +87,12 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 
 	private ProgramClassTypeInfoManager manager;
 	private boolean relocatable;
-
-	// if a typename contains this, vftable components index >= 2 point to __cxa_pure_virtual
-	private static final String PURE_VIRTUAL_CONTAINING_STRING = "abstract_base";
+	private RelocationIndex relocations;
+	private AddressSetView set;
+	private boolean incremental;
+	private Map<String, Set<Address>> staticReferences;
+	// shared by the parallel validation of every typestring in an analysis session
+	private ForkJoinPool pool;
 
 	/**
 	 * Constructs an RttiAnalyzer.
@@ -108,7 +124,11 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 				return false;
 			}
 
+			this.set = set;
+			this.incremental = CppClassAnalyzerUtils.isPartialSet(program, set);
 			this.relocatable = program.getRelocationTable().isRelocatable();
+			this.relocations = null;
+			this.staticReferences = null;
 
 			dummy = new CancelOnlyWrappingTaskMonitor(monitor);
 			for (String typeString : CLASS_TYPESTRINGS) {
@@ -117,7 +137,7 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 					break;
 				}
 			}
-			if (!relocatable) {
+			if (!relocatable && !incremental) {
 				if (TypeInfoUtils.findTypeInfo(
 					program, set, TypeInfoModel.ID_STRING, dummy) == null) {
 						log.appendMsg(this.getName(), "RTTI not detected");
@@ -125,6 +145,7 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 					}
 			}
 
+			TypeInfoStringCache.startSession(program);
 			try {
 				/* Create the vmi replacement base to prevent a
 				   placeholder struct from being generated  */
@@ -146,6 +167,12 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 				e.printStackTrace();
 				log.appendMsg("Ghidra-Cpp-Class-Analyzer", e.getMessage());
 				return false;
+			} finally {
+				TypeInfoStringCache.endSession(program);
+				if (pool != null) {
+					pool.shutdownNow();
+					pool = null;
+				}
 			}
 	}
 
@@ -154,48 +181,94 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 		dtm.resolve(VmiClassTypeInfoModel.getDataType(dtm), REPLACE_HANDLER);
 	}
 
-	private boolean checkTableAddresses(Function[][] functionTables) {
-		if (functionTables.length == 0 || functionTables[0].length < 3) {
+	private static boolean checkTableAddresses(Function[][] functionTables) {
+		if (functionTables.length == 0 || functionTables[0].length < 4) {
 			return false;
 		}
-		if (functionTables[0].length >= 3) {
-			// sanity check. This is only possible for __cxa_pure_virtual
-			if (functionTables[0][2] == null || functionTables[0][3] == null) {
-				return false;
-			}
-			return functionTables[0][2].equals(functionTables[0][3]);
+		// sanity check. This is only possible for __cxa_pure_virtual
+		if (functionTables[0][2] == null || functionTables[0][3] == null) {
+			return false;
 		}
-		return false;
+		return functionTables[0][2].equals(functionTables[0][3]);
 	}
 
-	private static boolean isPureVirtualType(ClassTypeInfo type) {
-		return type.getTypeName().contains(PURE_VIRTUAL_CONTAINING_STRING);
+	/**
+	 * Locates {@value GnuVtable#PURE_VIRTUAL_FUNCTION_NAME} from the function slots of the
+	 * vtables which have already been found. It is the target shared by the most classes
+	 * which is either non-returning or confirmed by {@link #checkTableAddresses}.
+	 * A function which returns, such as a trivial function folded with identical code
+	 * and shared by many classes, is never chosen.
+	 * @return the pure virtual function or null if it could not be determined
+	 * @throws CancelledException if the analysis is cancelled
+	 */
+	private Function getPureVirtualFunction() throws CancelledException {
+		// target -> number of classes with the target in one of their slots
+		Map<Address, Integer> counts = new HashMap<>();
+		Set<Address> confirmed = new HashSet<>();
+		Set<Address> classes = new HashSet<>();
+		for (Vtable vtable : manager.getVtables()) {
+			monitor.checkCanceled();
+			if (!classes.add(vtable.getTypeInfo().getAddress())) {
+				// each class is only counted once
+				continue;
+			}
+			Function[][] functionTables = vtable.getFunctionTables();
+			if (checkTableAddresses(functionTables)) {
+				confirmed.add(functionTables[0][2].getEntryPoint());
+			}
+			Set<Address> targets = new HashSet<>();
+			for (Function[] table : functionTables) {
+				for (Function function : table) {
+					if (function != null) {
+						targets.add(function.getEntryPoint());
+					}
+				}
+			}
+			for (Address target : targets) {
+				counts.merge(target, 1, Integer::sum);
+			}
+		}
+		FunctionManager functionManager = program.getFunctionManager();
+		Function result = null;
+		int best = 0;
+		for (Map.Entry<Address, Integer> entry : counts.entrySet()) {
+			monitor.checkCanceled();
+			int count = entry.getValue();
+			if (count <= best) {
+				continue;
+			}
+			Function function = functionManager.getFunctionAt(entry.getKey());
+			if (function == null) {
+				continue;
+			}
+			if (function.hasNoReturn() || confirmed.contains(entry.getKey())) {
+				result = function;
+				best = count;
+			}
+		}
+		return result;
 	}
 
-	private Function getPureVirtualFunction() throws CancelledException {
-		return
-			manager.getTypeStream()
-			.filter(GccRttiAnalyzer::isPureVirtualType)
-			.map(t -> t.findVtable())
-			.filter(Vtable::isValid)
-			.map(Vtable::getFunctionTables)
-			.filter(this::checkTableAddresses)
-			.findFirst()
-			.map(f -> f[0][2])
-			.orElse(null);
+	private boolean hasPureVirtualFunction() {
+		SymbolTable table = program.getSymbolTable();
+		return !table.getGlobalSymbols(PURE_VIRTUAL_FUNCTION_NAME).isEmpty();
 	}
 
-	private void findAndCreatePureVirtualFunction() throws Exception {
+	private boolean findAndCreatePureVirtualFunction() throws Exception {
+		if (hasPureVirtualFunction()) {
+			return true;
+		}
 		monitor.setMessage("Locating "+PURE_VIRTUAL_FUNCTION_NAME);
 		Function pureVirtual = getPureVirtualFunction();
 		if (pureVirtual == null) {
-			return;
+			return false;
 		}
 		String cc = GenericCallingConvention.stdcall.getDeclarationName();
 		pureVirtual.setName(PURE_VIRTUAL_FUNCTION_NAME, SourceType.IMPORTED);
 		pureVirtual.setNoReturn(true);
 		pureVirtual.setReturnType(VoidDataType.dataType, SourceType.IMPORTED);
 		pureVirtual.setCallingConvention(cc);
+		return true;
 	}
 
 	private void createVtable(GnuVtable vtable) throws Exception {
@@ -210,7 +283,6 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 				markDataAsConstant(tableAddress);
 			}
 		}
-		locateVTT(vtable);
 	}
 
 	public final void markDataAsConstant(Address address) {
@@ -228,13 +300,20 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 		}
 	}
 
-	private void locateVTT(GnuVtable vtable) throws Exception {
-		ClassTypeInfo type = vtable.getTypeInfo();
-		if (!CLASS_TYPESTRINGS.contains(type.getTypeName())) {
-			VttModel vtt = VtableUtils.getVttModel(program, vtable);
-			if (vtt.isValid()) {
-				createVtt(type, vtt);
+	private void createVtts(List<Vtable> vtables) throws Exception {
+		manager.findVtts(monitor);
+		monitor.initialize(vtables.size());
+		monitor.setMessage("Creating VTTs");
+		for (Vtable vtable : vtables) {
+			monitor.checkCanceled();
+			ClassTypeInfo type = vtable.getTypeInfo();
+			if (!CLASS_TYPESTRINGS.contains(type.getTypeName())) {
+				VttModel vtt = manager.getVtt(type);
+				if (vtt.isValid()) {
+					createVtt(type, vtt);
+				}
 			}
+			monitor.incrementProgress(1);
 		}
 	}
 
@@ -245,39 +324,99 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 	}
 
 	private void createVtables() throws Exception {
-		findAndCreatePureVirtualFunction();
+		if (incremental) {
+			createAddedVtables();
+			return;
+		}
+		// construction vtables can only be told apart once the pure virtual is known
+		boolean hasPureVirtual = findAndCreatePureVirtualFunction();
 		manager.findVtables(monitor);
+		if (!hasPureVirtual) {
+			findAndCreatePureVirtualFunction();
+		}
+		List<Vtable> vtables = new ArrayList<>(manager.getVtableCount());
 		monitor.initialize(manager.getVtableCount());
 		monitor.setMessage("Creating vtables");
 		for (Vtable vtable : manager.getVtables()) {
 			monitor.checkCanceled();
 			createVtable((GnuVtable) vtable);
+			vtables.add(vtable);
+			monitor.incrementProgress(1);
+		}
+		createVtts(vtables);
+	}
+
+	private void createAddedVtables() throws Exception {
+		boolean hasPureVirtual = findAndCreatePureVirtualFunction();
+		manager.findVtables(set, monitor);
+		if (!hasPureVirtual) {
+			findAndCreatePureVirtualFunction();
+		}
+		// only the vtables of the types within the added set are created
+		List<ClassTypeInfoDB> types = manager.getTypes(set, false);
+		List<Vtable> vtables = new ArrayList<>();
+		monitor.initialize(types.size());
+		monitor.setMessage("Creating vtables");
+		for (ClassTypeInfoDB type : types) {
+			monitor.checkCanceled();
+			Vtable vtable = type.getVtable();
+			if (Vtable.isValid(vtable)) {
+				createVtable((GnuVtable) vtable);
+				vtables.add(vtable);
+			}
 			monitor.incrementProgress(1);
 		}
+		createVtts(vtables);
 	}
 
 	private Set<Address> getStaticReferences(String typeString) throws Exception {
-		try {
+		if (staticReferences == null) {
+			staticReferences = scanStaticReferences();
+		}
+		Set<Address> result = staticReferences.get(typeString);
+		return result != null ? result : Collections.emptySet();
+	}
+
+	private Map<String, Set<Address>> scanStaticReferences() throws Exception {
+		List<String> typeStrings = new ArrayList<>();
+		if (fundamentalOption) {
+			typeStrings.addAll(Arrays.asList(FUNDAMENTAL_TYPESTRINGS));
+		}
+		typeStrings.add(TypeInfoModel.ID_STRING);
+		typeStrings.addAll(CLASS_TYPESTRINGS);
+		Map<String, Address> vtables = new LinkedHashMap<>(typeStrings.size());
+		for (String typeString : typeStrings) {
+			monitor.checkCanceled();
 			ClassTypeInfo typeinfo = (ClassTypeInfo) TypeInfoUtils.findTypeInfo(
 				program, typeString, dummy);
+			if (typeinfo == null) {
+				continue;
+			}
 			monitor.setMessage("Locating vtable for "+typeinfo.getName());
 			Vtable vtable = typeinfo.findVtable(dummy);
 			if (!Vtable.isValid(vtable)) {
 				throw new Exception("Vtable for "+typeinfo.getFullName()+" not found");
 			}
-			return GnuUtils.getDirectDataReferences(
-				program, vtable.getTableAddresses()[0], dummy);
-		} catch (NullPointerException e) {
-			return Collections.emptySet();
+			vtables.put(typeString, vtable.getTableAddresses()[0]);
 		}
+		// an incremental analysis only scans the added set
+		RttiSignatureScanner scanner = new RttiSignatureScanner(program, incremental ? set : null);
+		Map<Address, Set<Address>> candidates =
+			scanner.findTypeInfoCandidates(vtables.values(), monitor);
+		Map<String, Set<Address>> result = new HashMap<>(vtables.size());
+		for (Map.Entry<String, Address> entry : vtables.entrySet()) {
+			result.put(entry.getKey(), candidates.get(entry.getValue()));
+		}
+		return result;
 	}
 
 	private AddressSetView getDataAddressSet() {
-		AddressSet set = new AddressSet();
+		AddressSet result = new AddressSet();
 		for (MemoryBlock block : CppClassAnalyzerUtils.getAllDataBlocks(program)) {
-			set.add(block.getStart(), block.getEnd());
+			result.add(block.getStart(), block.getEnd());
 		}
-		return set;
+		// an incremental analysis only indexes the relocations within the added set
+		return incremental ? result.intersect(set) : result;
 	}
 
 	private Set<Address> getClangDynamicReferences(Relocation reloc) throws CancelledException {
@@ -299,24 +438,15 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 	}
 
 	private Set<Address> getDynamicReferences(String typeString) throws CancelledException {
+		if (relocations == null) {
+			relocations = new RelocationIndex(program, getDataAddressSet(), incremental, monitor);
+		}
 		String target = VtableModel.MANGLED_PREFIX+typeString;
-		Iterator<Relocation> relocations = program.getRelocationTable()
-			.getRelocations(getDataAddressSet());
-		Set<Address> result = new LinkedHashSet<>();
-		while (relocations.hasNext()) {
-			monitor.checkCanceled();
-			Relocation reloc = relocations.next();
-			String name = reloc.getSymbolName();
-			if (name == null) {
-				continue;
-			}
-			if (name.equals(target)) {
-				if (GnuUtils.isCopyRelocation(program, reloc.getType())) {
-					return getClangDynamicReferences(reloc);
-				}
-				result.add(reloc.getAddress());
-			}
-		} return result;
+		Relocation copy = relocations.getCopyRelocation(target);
+		if (copy != null) {
+			return getClangDynamicReferences(copy);
+		}
+		return relocations.getReferences(target);
 	}
 
 	private Set<Address> getReferences(String typeString) throws Exception {
@@ -329,30 +459,193 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 	private void applyTypeInfoTypes(String typeString) throws Exception {
 		boolean isClass = CLASS_TYPESTRINGS.contains(typeString);
 		Set<Address> types = getReferences(typeString);
+		if (incremental) {
+			types = getAddedTypes(types, isClass);
+		}
 		if (types.isEmpty()) {
 			return;
 		}
 		Namespace typeClass = TypeInfoUtils.getNamespaceFromTypeName(program, typeString);
-		monitor.initialize(types.size());
+		monitor.setMessage(
+				"Validating "+typeClass.getName()+" candidates");
+		List<TypeInfoDescriptor> descriptors = getTypeInfoDescriptors(types);
+		monitor.setMessage(
+				"Demangling "+typeClass.getName()+" typenames");
+		demangleTypeNames(descriptors);
+		monitor.initialize(descriptors.size());
 		monitor.setMessage(
 				"Creating "+typeClass.getName()+" structures");
-		for (Address reference : types) {
+		List<TypeInfo> typeInfos = descriptors.stream()
+			.map(d -> d.type)
+			.collect(Collectors.toList());
+		if (isClass) {
+			typeInfos = resolveClassTypes(typeInfos);
+		}
+		for (TypeInfo type : typeInfos) {
 			monitor.checkCanceled();
-			TypeInfo type = manager.getTypeInfo(reference);
-			if (type != null) {
-				if (isClass) {
-					ClassTypeInfo classType = ((ClassTypeInfo) type);
-					manager.resolve(classType);
-					classType.getGhidraClass();
-				}
-				CreateTypeInfoBackgroundCmd cmd = new CreateTypeInfoBackgroundCmd(type);
-				cmd.applyTo(program, dummy);
-				markDataAsConstant(type.getAddress());
+			if (isClass) {
+				((ClassTypeInfo) type).getGhidraClass();
 			}
+			CreateTypeInfoBackgroundCmd cmd = new CreateTypeInfoBackgroundCmd(type);
+			cmd.applyTo(program, dummy);
+			markDataAsConstant(type.getAddress());
 			monitor.incrementProgress(1);
 		}
 	}
 
+	/**
+	 * Resolves all the class types at once
+	 * @param types the class types
+	 * @return the resolved class types
+	 */
+	private List<TypeInfo> resolveClassTypes(List<TypeInfo> types) {
+		List<ClassTypeInfo> classTypes = types.stream()
+			.map(ClassTypeInfo.class::cast)
+			.collect(Collectors.toList());
+		return new ArrayList<>(manager.resolveAll(classTypes));
+	}
+
+	/**
+	 * Restricts the candidates to those within the analyzed address set.
+	 * Class types which have already been resolved are reused as is.
+	 * @param types the candidate typeinfo addresses
+	 * @param isClass true if the candidates are class types
+	 * @return the candidates which need to be analyzed
+	 */
+	private Set<Address> getAddedTypes(Set<Address> types, boolean isClass) {
+		Set<Address> result = new LinkedHashSet<>();
+		for (Address address : types) {
+			if (!set.contains(address)) {
+				continue;
+			}
+			if (isClass && manager.containsType(address)) {
+				continue;
+			}
+			result.add(address);
+		}
+		return result;
+	}
+
+	/**
+	 * Demangles all the typenames in a single batch so that the namespaces
+	 * created while applying the descriptors are resolved from the demangler's cache.
+	 * @param descriptors the validated typeinfo descriptors
+	 */
+	private void demangleTypeNames(List<TypeInfoDescriptor> descriptors) {
+		List<String> names = new ArrayList<>(descriptors.size());
+		for (TypeInfoDescriptor descriptor : descriptors) {
+			String typeName = descriptor.typeName;
+			names.add(typeName.startsWith("_ZTI") ? typeName : "_ZTI" + typeName);
+		}
+		try {
+			BatchGnuDemangler.getInstance().demangle(names);
+		} catch (IOException e) {
+			// each typename will be demangled individually instead
+			Msg.warn(this, "Batch demangling failed", e);
+		}
+	}
+
+	/**
+	 * Validates the candidate typeinfo addresses and builds their models in parallel.
+	 * The candidates are sharded by memory block and only read from the program.
+	 * Nothing is written to the program until the returned descriptors are applied.
+	 * @param candidates the candidate typeinfo addresses
+	 * @return the descriptors for the valid typeinfo in ascending address order
+	 * @throws Exception if the validation fails or is cancelled
+	 */
+	private List<TypeInfoDescriptor> getTypeInfoDescriptors(Set<Address> candidates)
+			throws Exception {
+		Memory mem = program.getMemory();
+		Map<MemoryBlock, List<Address>> shards = new LinkedHashMap<>();
+		for (Address candidate : candidates) {
+			monitor.checkCanceled();
+			MemoryBlock block = mem.getBlock(candidate);
+			if (block != null) {
+				shards.computeIfAbsent(block, b -> new ArrayList<>()).add(candidate);
+			}
+		}
+		List<Callable<List<TypeInfoDescriptor>>> tasks = new ArrayList<>(shards.size());
+		for (List<Address> shard : shards.values()) {
+			tasks.add(() -> validateShard(shard));
+		}
+		if (pool == null) {
+			pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		}
+		List<TypeInfoDescriptor> result = new ArrayList<>(candidates.size());
+		for (Future<List<TypeInfoDescriptor>> future : pool.invokeAll(tasks)) {
+			try {
+				result.addAll(future.get());
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof Exception) {
+					throw (Exception) cause;
+				}
+				throw e;
+			}
+		}
+		result.sort(null);
+		return result;
+	}
+
+	private List<TypeInfoDescriptor> validateShard(List<Address> shard)
+			throws CancelledException {
+		List<TypeInfoDescriptor> result = new ArrayList<>(shard.size());
+		for (Address address : shard) {
+			monitor.checkCanceled();
+			String id = TypeInfoStringCache.getIDString(program, address);
+			if (!isTypeInfoIDString(id)) {
+				continue;
+			}
+			String typeName = TypeInfoStringCache.getTypeName(program, address);
+			if (typeName.isBlank()) {
+				continue;
+			}
+			// building an unresolved model only reads from the program
+			TypeInfo type = manager.getTypeInfo(address, false);
+			if (type != null) {
+				result.add(new TypeInfoDescriptor(type));
+			}
+		}
+		return result;
+	}
+
+	private static boolean isTypeInfoIDString(String id) {
+		if (id.equals(TypeInfoModel.ID_STRING) || CLASS_TYPESTRINGS.contains(id)) {
+			return true;
+		}
+		for (String typeString : FUNDAMENTAL_TYPESTRINGS) {
+			if (id.equals(typeString)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A validated typeinfo and the model built for it.
+	 */
+	private static final class TypeInfoDescriptor implements Comparable<TypeInfoDescriptor> {
+
+		final Address address;
+		final String typeName;
+		final TypeInfo type;
+
+		TypeInfoDescriptor(TypeInfo type) {
+			this.address = type.getAddress();
+			this.typeName = type.getTypeName();
+			this.type = type;
+		}
+
+		@Override
+		public int compareTo(TypeInfoDescriptor o) {
+			return address.compareTo(o.address);
+		}
+
+		@Override
+		public String toString() {
+			return typeName + " at " + address;
+		}
+	}
 
 	@Override
 	public void optionsChanged(Options options, Program program) {
@@ -363,4 +656,59 @@ public class GccRttiAnalyzer extends AbstractAnalyzer {
 		fundamentalOption =
 			options.getBoolean(OPTION_FUNDAMENTAL_NAME, OPTION_DEFAULT_FUNDAMENTAL);
 	}
+	/**
+	 * The vtable symbol relocations within the data blocks keyed by symbol name.
+	 * The relocation table is walked once per analysis session instead of once per query.
+	 * A partial index looks up the copy relocations it does not contain by their symbol.
+	 */
+	private static final class RelocationIndex {
+
+		private final Program program;
+		private final boolean partial;
+		private final Map<String, Set<Address>> references = new HashMap<>();
+		private final Map<String, Relocation> copies = new HashMap<>();
+
+		RelocationIndex(Program program, AddressSetView set, boolean partial,
+				TaskMonitor monitor) throws CancelledException {
+			this.program = program;
+			this.partial = partial;
+			Iterator<Relocation> relocations = program.getRelocationTable().getRelocations(set);
+			while (relocations.hasNext()) {
+				monitor.checkCanceled();
+				Relocation reloc = relocations.next();
+				String name = reloc.getSymbolName();
+				if (name == null || !name.startsWith(VtableModel.MANGLED_PREFIX)) {
+					continue;
+				}
+				if (GnuUtils.isCopyRelocation(program, reloc.getType())) {
+					copies.putIfAbsent(name, reloc);
+				} else {
+					references.computeIfAbsent(name, k -> new LinkedHashSet<>())
+						.add(reloc.getAddress());
+				}
+			}
+		}
+
+		Relocation getCopyRelocation(String name) {
+			Relocation result = copies.get(name);
+			if (result != null || !partial) {
+				return result;
+			}
+			// the copy relocation is located at the copied symbol
+			RelocationTable table = program.getRelocationTable();
+			for (Symbol symbol : program.getSymbolTable().getGlobalSymbols(name)) {
+				Relocation reloc = table.getRelocation(symbol.getAddress());
+				if (reloc != null && GnuUtils.isCopyRelocation(program, reloc.getType())) {
+					copies.put(name, reloc);
+					return reloc;
+				}
+			}
+			return null;
+		}
+
+		Set<Address> getReferences(String name) {
+			Set<Address> result = references.get(name);
+			return result != null ? new LinkedHashSet<>(result) : new LinkedHashSet<>();
+		}
+	}
 }
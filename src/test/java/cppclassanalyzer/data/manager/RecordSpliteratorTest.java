@@ -0,0 +1,111 @@
+package cppclassanalyzer.data.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ghidra.app.cmd.data.rtti.gcc.builder.GeneratedTypeInfoProgramBuilder;
+import ghidra.test.AbstractGhidraHeadedIntegrationTest;
+
+import org.junit.Test;
+
+import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
+
+import static ghidra.app.cmd.data.rtti.gcc.builder.GeneratedTypeInfoProgramBuilder.TYPE_COUNT;
+
+public class RecordSpliteratorTest extends AbstractGhidraHeadedIntegrationTest {
+
+	private static final long MIN_KEY = 100;
+	private static final long MAX_KEY = 199;
+
+	private static List<Long> getKeys(Stream<ClassTypeInfoDB> stream) {
+		return stream.map(ClassTypeInfoDB::getKey).collect(Collectors.toList());
+	}
+
+	private static List<Long> getKeys(Spliterator<ClassTypeInfoDB> spliterator) {
+		List<Long> keys = new ArrayList<>();
+		spliterator.forEachRemaining(type -> keys.add(type.getKey()));
+		return keys;
+	}
+
+	private static void assertOrdered(List<Long> keys, boolean reverse) {
+		for (int i = 1; i < keys.size(); i++) {
+			long previous = keys.get(i - 1);
+			long current = keys.get(i);
+			assert reverse ? previous > current : previous < current
+				: String.format("key %d followed key %d", current, previous);
+		}
+	}
+
+	@Test
+	public void fullStreamTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		for (boolean reverse : new boolean[] { false, true }) {
+			List<Long> keys = getKeys(manager.getTypeStream(0, Long.MAX_VALUE, reverse));
+			assert keys.size() == TYPE_COUNT : Integer.toString(keys.size()) + " types";
+			assertOrdered(keys, reverse);
+		}
+	}
+
+	@Test
+	public void rangeStreamTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		List<Long> keys = getKeys(manager.getTypeStream(MIN_KEY, MAX_KEY, false));
+		assert keys.size() == MAX_KEY - MIN_KEY + 1 : keys;
+		assert keys.get(0) == MIN_KEY : keys;
+		assert keys.get(keys.size() - 1) == MAX_KEY : keys;
+		assertOrdered(keys, false);
+	}
+
+	@Test
+	public void reverseRangeStreamTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		List<Long> keys = getKeys(manager.getTypeStream(MIN_KEY, MAX_KEY, true));
+		assert keys.size() == MAX_KEY - MIN_KEY + 1 : keys;
+		// the record at the maximum key must be the first and only appear once
+		assert keys.get(0) == MAX_KEY : keys;
+		assert keys.get(1) == MAX_KEY - 1 : keys;
+		assert keys.get(keys.size() - 1) == MIN_KEY : keys;
+		assertOrdered(keys, true);
+	}
+
+	@Test
+	public void trySplitTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		for (boolean reverse : new boolean[] { false, true }) {
+			Spliterator<ClassTypeInfoDB> suffix =
+				manager.getTypeStream(0, Long.MAX_VALUE, reverse).spliterator();
+			Spliterator<ClassTypeInfoDB> prefix = suffix.trySplit();
+			assert prefix != null : "the full key range was not split";
+			List<Long> keys = getKeys(prefix);
+			List<Long> rest = getKeys(suffix);
+			assert !keys.isEmpty() && !rest.isEmpty();
+			assertOrdered(keys, reverse);
+			assertOrdered(rest, reverse);
+			long last = keys.get(keys.size() - 1);
+			long first = rest.get(0);
+			// the prefix covers the keys encountered first
+			assert reverse ? last > first : last < first
+				: String.format("prefix ends at %d but the rest starts at %d", last, first);
+			assert keys.size() + rest.size() == TYPE_COUNT
+				: Integer.toString(keys.size() + rest.size()) + " types";
+		}
+	}
+
+	@Test
+	public void startedSplitTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		Spliterator<ClassTypeInfoDB> spliterator =
+			manager.getTypeStream(0, Long.MAX_VALUE, false).spliterator();
+		assert spliterator.tryAdvance(type -> {});
+		assert spliterator.trySplit() == null : "an opened cursor was split";
+		assert getKeys(spliterator).size() == TYPE_COUNT - 1;
+	}
+}
@@ -0,0 +1,112 @@
+package cppclassanalyzer.plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import ghidra.app.cmd.data.rtti.gcc.builder.X86TypeInfoProgramBuilder;
+import ghidra.test.AbstractGhidraHeadedIntegrationTest;
+
+import org.junit.Test;
+
+import cppclassanalyzer.data.ClassTypeInfoManager;
+import cppclassanalyzer.data.ProgramClassTypeInfoManager;
+import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
+
+import static cppclassanalyzer.plugin.TypeInfoArchiveChangeRecord.ChangeType.*;
+
+public class TypeInfoChangeCoalescerTest extends AbstractGhidraHeadedIntegrationTest {
+
+	@Test
+	public void mergeTest() {
+		assert TypeInfoChangeCoalescer.merge(null, TYPE_ADDED) == TYPE_ADDED;
+		assert TypeInfoChangeCoalescer.merge(null, TYPE_REMOVED) == TYPE_REMOVED;
+		assert TypeInfoChangeCoalescer.merge(TYPE_ADDED, TYPE_UPDATED) == TYPE_ADDED;
+		assert TypeInfoChangeCoalescer.merge(TYPE_ADDED, TYPE_ADDED) == TYPE_ADDED;
+		assert TypeInfoChangeCoalescer.merge(TYPE_ADDED, TYPE_REMOVED) == null;
+		assert TypeInfoChangeCoalescer.merge(TYPE_REMOVED, TYPE_ADDED) == TYPE_UPDATED;
+		assert TypeInfoChangeCoalescer.merge(TYPE_REMOVED, TYPE_UPDATED) == TYPE_REMOVED;
+		assert TypeInfoChangeCoalescer.merge(TYPE_UPDATED, TYPE_REMOVED) == TYPE_REMOVED;
+		assert TypeInfoChangeCoalescer.merge(TYPE_UPDATED, TYPE_UPDATED) == TYPE_UPDATED;
+	}
+
+	@Test
+	public void flushTest() throws Exception {
+		X86TypeInfoProgramBuilder builder = new X86TypeInfoProgramBuilder();
+		ProgramClassTypeInfoManager manager = builder.getManager();
+		Iterator<ClassTypeInfoDB> types = manager.getTypes().iterator();
+		ClassTypeInfoDB added = types.next();
+		ClassTypeInfoDB removed = types.next();
+		ClassTypeInfoDB updated = types.next();
+		ClassTypeInfoDB readded = types.next();
+		RecordingListener listener = new RecordingListener();
+		TypeInfoChangeCoalescer coalescer = new TypeInfoChangeCoalescer(listener);
+		try {
+			coalescer.add(new TypeInfoArchiveChangeRecord(TYPES_ADDED, List.of(added, removed)));
+			coalescer.add(new TypeInfoArchiveChangeRecord(TYPE_UPDATED, added));
+			coalescer.add(new TypeInfoArchiveChangeRecord(TYPE_REMOVED, removed));
+			coalescer.add(new TypeInfoArchiveChangeRecord(TYPE_UPDATED, updated));
+			coalescer.add(new TypeInfoArchiveChangeRecord(TYPE_REMOVED, readded));
+			// a type which is added again is resolved to a new object
+			manager.invalidateCache(true);
+			ClassTypeInfoDB current = manager.getType(readded.getAddress());
+			assert current != readded;
+			coalescer.add(new TypeInfoArchiveChangeRecord(TYPE_ADDED, current));
+			coalescer.flushNow();
+			waitForSwing();
+			assert listener.added.equals(List.of(added)) : listener.added;
+			assert listener.removed.isEmpty() : listener.removed;
+			assert listener.updated.size() == 2 : listener.updated;
+			assert listener.updated.get(0) == updated;
+			assert listener.updated.get(1) == current : "the stale object was reported";
+		} finally {
+			coalescer.dispose();
+		}
+	}
+
+	private static final class RecordingListener implements TypeInfoManagerListener {
+
+		final List<ClassTypeInfoDB> added = new ArrayList<>();
+		final List<ClassTypeInfoDB> removed = new ArrayList<>();
+		final List<ClassTypeInfoDB> updated = new ArrayList<>();
+
+		@Override
+		public void managerOpened(ClassTypeInfoManager manager) {
+		}
+
+		@Override
+		public void managerClosed(ClassTypeInfoManager manager) {
+		}
+
+		@Override
+		public void typeAdded(ClassTypeInfoDB type) {
+			added.add(type);
+		}
+
+		@Override
+		public void typeRemoved(ClassTypeInfoDB type) {
+			removed.add(type);
+		}
+
+		@Override
+		public void typeUpdated(ClassTypeInfoDB type) {
+			updated.add(type);
+		}
+
+		@Override
+		public void typesAdded(Collection<ClassTypeInfoDB> types) {
+			added.addAll(types);
+		}
+
+		@Override
+		public void typesRemoved(Collection<ClassTypeInfoDB> types) {
+			removed.addAll(types);
+		}
+
+		@Override
+		public void typesUpdated(Collection<ClassTypeInfoDB> types) {
+			updated.addAll(types);
+		}
+	}
+}
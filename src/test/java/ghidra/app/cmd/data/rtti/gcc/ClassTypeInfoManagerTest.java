@@ -0,0 +1,618 @@
+package ghidra.app.cmd.data.rtti.gcc;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import ghidra.app.cmd.data.rtti.ClassTypeInfo;
+import ghidra.app.cmd.data.rtti.Vtable;
+import ghidra.app.cmd.data.rtti.gcc.builder.GeneratedTypeInfoProgramBuilder;
+import ghidra.app.cmd.data.rtti.gcc.builder.X86TypeInfoProgramBuilder;
+import ghidra.program.database.DatabaseObject;
+import ghidra.program.database.ProgramDB;
+import ghidra.program.model.address.Address;
+import ghidra.program.model.address.AddressSet;
+import ghidra.program.model.listing.Program;
+import ghidra.util.Msg;
+import ghidra.util.task.TaskMonitor;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import cppclassanalyzer.data.ProgramClassTypeInfoManager;
+import cppclassanalyzer.data.manager.ClassHierarchySnapshot;
+import cppclassanalyzer.data.manager.ClassTypeInfoManagerDB;
+import cppclassanalyzer.data.manager.caches.RttiObjectCache;
+import cppclassanalyzer.data.typeinfo.AbstractClassTypeInfoDB;
+import cppclassanalyzer.data.typeinfo.ClassTypeInfoDB;
+import cppclassanalyzer.data.typeinfo.GnuClassTypeInfoDB;
+import cppclassanalyzer.data.typeinfo.AbstractClassTypeInfoDB.TypeId;
+import cppclassanalyzer.data.vtable.AbstractVtableDB;
+import cppclassanalyzer.database.record.ClassTypeInfoRecord;
+import cppclassanalyzer.database.schema.ClassTypeInfoSchema;
+import cppclassanalyzer.database.schema.VtableSchema;
+import cppclassanalyzer.database.schema.fields.ClassTypeInfoSchemaFields;
+import cppclassanalyzer.database.schema.fields.VtableSchemaFields;
+
+import db.DBHandle;
+import db.LongField;
+import db.RecordIterator;
+import db.Schema;
+import db.Table;
+
+import static ghidra.app.cmd.data.rtti.gcc.builder.GeneratedTypeInfoProgramBuilder.TYPE_COUNT;
+
+public class ClassTypeInfoManagerTest extends GenericGccRttiTest {
+
+	private static final long MOVE_DISTANCE = 0x01000000L;
+	private static final int READER_COUNT = 8;
+	private static final int MOVE_COUNT = 16;
+	private static final int RESOLVE_COUNT = 1024;
+	private static final int DERIVED_COUNT = 50000;
+	private static final int UPGRADE_COUNT = 1024;
+	private static final String BENCHMARK_PROPERTY = "cppclassanalyzer.benchmark";
+
+	@Test
+	public void deleteAddressRangeTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		Program program = builder.getProgram();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		assert manager.getTypeCount() == TYPE_COUNT;
+		int first = TYPE_COUNT / 4;
+		int last = first + TYPE_COUNT / 2;
+		Address start = builder.getTypeInfoAddress(first);
+		Address end = builder.getTypeInfoAddress(last).subtract(1);
+		int id = program.startTransaction("deleteAddressRangeTest");
+		try {
+			manager.deleteAddressRange(start, end, TaskMonitor.DUMMY);
+		} finally {
+			program.endTransaction(id, true);
+		}
+		assert manager.getTypeCount() == TYPE_COUNT - (last - first)
+			: Integer.toString(manager.getTypeCount()) + " types remain";
+		for (int i = 0; i < TYPE_COUNT; i++) {
+			Address address = builder.getTypeInfoAddress(i);
+			boolean deleted = i >= first && i < last;
+			assert manager.containsType(address) != deleted
+				: String.format("type at %s was %s", address, deleted ? "kept" : "deleted");
+		}
+	}
+
+	@Test
+	public void addressSetTypesTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		int first = TYPE_COUNT / 4;
+		int last = first + TYPE_COUNT / 2;
+		AddressSet set = new AddressSet(builder.getTypeInfoAddress(first),
+			builder.getTypeInfoAddress(last).subtract(1));
+		List<ClassTypeInfoDB> types = manager.getTypes(set, false);
+		assert types.size() == last - first : Integer.toString(types.size()) + " types";
+		for (ClassTypeInfoDB type : types) {
+			assert set.contains(type.getAddress()) : type.getName() + " is outside of the set";
+		}
+		List<ClassTypeInfoDB> reversed = manager.getTypes(set, true);
+		for (int i = 0; i < types.size(); i++) {
+			assert reversed.get(i) == types.get(types.size() - 1 - i);
+		}
+	}
+
+	@Test
+	public void moveAddressRangeTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		Program program = builder.getProgram();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		Address start = builder.getTypeInfoAddress(0);
+		Address destination = start.add(MOVE_DISTANCE);
+		long length = (long) TYPE_COUNT * builder.getTypeInfoSize();
+		int id = program.startTransaction("moveAddressRangeTest");
+		try {
+			manager.moveAddressRange(start, destination, length, TaskMonitor.DUMMY);
+		} finally {
+			program.endTransaction(id, true);
+		}
+		assert manager.getTypeCount() == TYPE_COUNT;
+		for (int i = 0; i < TYPE_COUNT; i++) {
+			Address address = builder.getTypeInfoAddress(i);
+			assert !manager.containsType(address) : "type at " + address + " was not moved";
+			Address moved = address.add(MOVE_DISTANCE);
+			assert manager.containsType(moved) : "type was not moved to " + moved;
+		}
+	}
+
+	@Test
+	public void concurrentReadTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		Program program = builder.getProgram();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		Address start = builder.getTypeInfoAddress(0);
+		Address moved = start.add(MOVE_DISTANCE);
+		long length = (long) TYPE_COUNT * builder.getTypeInfoSize();
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		List<Thread> readers = new ArrayList<>(READER_COUNT);
+		for (int i = 0; i < READER_COUNT; i++) {
+			Thread reader = new Thread(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				try {
+					while (!done.get() && failure.get() == null) {
+						long key = random.nextInt(TYPE_COUNT);
+						ClassTypeInfoDB type = manager.getType(key);
+						checkType(builder, type, start, moved);
+					}
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				}
+			});
+			reader.start();
+			readers.add(reader);
+		}
+		try {
+			for (int i = 0; i < MOVE_COUNT && failure.get() == null; i++) {
+				Address from = i % 2 == 0 ? start : moved;
+				Address to = i % 2 == 0 ? moved : start;
+				int id = program.startTransaction("concurrentReadTest");
+				try {
+					manager.moveAddressRange(from, to, length, TaskMonitor.DUMMY);
+				} finally {
+					program.endTransaction(id, true);
+				}
+			}
+		} finally {
+			done.set(true);
+			for (Thread reader : readers) {
+				reader.join();
+			}
+		}
+		Throwable t = failure.get();
+		assert t == null : t;
+	}
+
+	@Test
+	public void cacheStatisticsTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder = new GeneratedTypeInfoProgramBuilder();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		RttiObjectCache<AbstractClassTypeInfoDB> cache = manager.getTypeCache();
+		manager.setCacheCapacity(TYPE_COUNT);
+		assert cache.getCapacity() == TYPE_COUNT;
+		cache.resetStatistics();
+		for (long key = 0; key < TYPE_COUNT; key++) {
+			assert manager.getType(key) != null;
+		}
+		long hits = cache.getHitCount();
+		assert hits + cache.getMissCount() == TYPE_COUNT : cache.toString();
+		for (long key = 0; key < TYPE_COUNT; key++) {
+			assert manager.getType(key) != null;
+		}
+		assert cache.getHitCount() - hits == TYPE_COUNT : cache.toString();
+		assert cache.getEvictionCount() == 0 : cache.toString();
+	}
+
+	@Test
+	public void rankedOrderTest() throws Exception {
+		X86TypeInfoProgramBuilder builder = new X86TypeInfoProgramBuilder();
+		ProgramClassTypeInfoManager manager = builder.getManager();
+		builder.getTypeInfoStream()
+			.filter(ClassTypeInfo.class::isInstance)
+			.map(ClassTypeInfo.class::cast)
+			.forEach(manager::resolve);
+		Set<ClassTypeInfo> visited = new HashSet<>();
+		for (ClassTypeInfoDB type : manager.getTypes()) {
+			for (ClassTypeInfo parent : type.getParentModels()) {
+				assert visited.contains(parent)
+					: type.getName() + " was provided before its base " + parent.getName();
+			}
+			visited.add(type);
+		}
+		assert visited.size() == manager.getTypeCount();
+		visited.clear();
+		for (ClassTypeInfoDB type : manager.getTypes(true)) {
+			for (ClassTypeInfo parent : type.getParentModels()) {
+				assert !visited.contains(parent)
+					: parent.getName() + " was provided before its derived " + type.getName();
+			}
+			visited.add(type);
+		}
+	}
+
+	@Test
+	public void hierarchySnapshotTest() throws Exception {
+		X86TypeInfoProgramBuilder builder = new X86TypeInfoProgramBuilder();
+		Program program = builder.getProgram();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		builder.getTypeInfoStream()
+			.filter(ClassTypeInfo.class::isInstance)
+			.map(ClassTypeInfo.class::cast)
+			.forEach(manager::resolve);
+		ClassHierarchySnapshot snapshot = manager.getHierarchySnapshot();
+		assert snapshot.size() == manager.getTypeCount();
+		for (ClassTypeInfoDB type : manager.getTypes()) {
+			long key = type.getKey();
+			int index = snapshot.indexOf(key);
+			assert index >= 0 : type.getName() + " is missing from the snapshot";
+			long[] parents = Arrays.stream(type.getParentModels())
+				.mapToLong(ClassTypeInfoDB::getKey)
+				.toArray();
+			assert Arrays.equals(parents, snapshot.getParentKeys(key))
+				: "incorrect parents for " + type.getName();
+			Map<ClassTypeInfo, Integer> offsets = type.getBaseOffsets();
+			for (int n = 0; n < parents.length; n++) {
+				Integer offset = offsets.get(manager.getType(parents[n]));
+				int expected = offset != null ? offset : ClassHierarchySnapshot.UNKNOWN_OFFSET;
+				assert snapshot.getParentOffset(index, n) == expected
+					: "incorrect parent offset for " + type.getName();
+			}
+			for (long parent : parents) {
+				assert snapshot.isDerivedFrom(key, parent);
+				assert !snapshot.isDerivedFrom(parent, key);
+				assert snapshot.getDepth(index) > snapshot.getDepth(snapshot.indexOf(parent));
+				assert Arrays.stream(snapshot.getDerivedKeys(parent)).anyMatch(k -> k == key)
+					: type.getName() + " is not derived from its parent";
+			}
+			Vtable vtable = type.getVtable();
+			if (Vtable.isValid(vtable)) {
+				assert snapshot.getVtableKey(index) == ((DatabaseObject) vtable).getKey();
+			}
+		}
+		assert manager.getHierarchySnapshot() == snapshot;
+		ClassTypeInfoDB type = manager.getTypes().iterator().next();
+		int id = program.startTransaction("hierarchySnapshotTest");
+		try {
+			manager.deleteAddressRange(type.getAddress(), type.getAddress(), TaskMonitor.DUMMY);
+		} finally {
+			program.endTransaction(id, true);
+		}
+		ClassHierarchySnapshot current = manager.getHierarchySnapshot();
+		assert current != snapshot;
+		assert current.getModificationCount() > snapshot.getModificationCount();
+		assert current.size() == snapshot.size() - 1;
+		assert current.indexOf(type.getKey()) == -1;
+	}
+
+	@Test
+	public void classVtableIndexTest() throws Exception {
+		X86TypeInfoProgramBuilder builder = new X86TypeInfoProgramBuilder();
+		Program program = builder.getProgram();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		builder.getTypeInfoStream()
+			.filter(ClassTypeInfo.class::isInstance)
+			.map(ClassTypeInfo.class::cast)
+			.forEach(manager::resolve);
+		ClassTypeInfoDB removed = null;
+		for (ClassTypeInfoDB type : manager.getTypes()) {
+			long[] keys = manager.getVtableKeys(type.getKey());
+			Vtable vtable = type.getVtable();
+			if (!Vtable.isValid(vtable)) {
+				// a vtable without a class must not be assigned to type 0
+				assert keys.length == 0 : type.getName() + " has a vtable record";
+				continue;
+			}
+			long key = ((DatabaseObject) vtable).getKey();
+			assert Arrays.equals(keys, new long[] { key })
+				: "incorrect vtable keys for " + type.getName();
+			Vtable indexed = manager.getVtables(type.getKey()).iterator().next();
+			assert ((DatabaseObject) indexed).getKey() == key;
+			removed = type;
+		}
+		assert removed != null;
+		Address vtableAddress = ((AbstractVtableDB) removed.getVtable()).getAddress();
+		int id = program.startTransaction("classVtableIndexTest");
+		try {
+			manager.deleteAddressRange(
+				removed.getAddress(), removed.getAddress(), TaskMonitor.DUMMY);
+		} finally {
+			program.endTransaction(id, true);
+		}
+		assert manager.getVtableKeys(removed.getKey()).length == 0;
+		assert manager.getVtableKey(vtableAddress) == ClassTypeInfoManagerDB.INVALID_KEY
+			: "the vtable of a removed type was left behind";
+	}
+
+	@Test
+	public void modelDataUpgradeTest() throws Exception {
+		long[] nonVirtualBaseKeys = new long[] { 3, 1 };
+		long[] virtualBaseKeys = new long[] { 7 };
+		long[] baseKeys = new long[] { 3, 1, 7 };
+		int[] baseOffsets = new int[] { 0, 16, -24 };
+		ByteBuffer buf = ByteBuffer.allocate(
+			ClassTypeInfoRecord.getArraySize(nonVirtualBaseKeys)
+			+ ClassTypeInfoRecord.getArraySize(virtualBaseKeys)
+			+ ClassTypeInfoRecord.getArraySize(baseKeys)
+			+ ClassTypeInfoRecord.getArraySize(baseOffsets));
+		ClassTypeInfoRecord.setLongArray(buf, nonVirtualBaseKeys);
+		ClassTypeInfoRecord.setLongArray(buf, virtualBaseKeys);
+		ClassTypeInfoRecord.setLongArray(buf, baseKeys);
+		ClassTypeInfoRecord.setIntArray(buf, baseOffsets);
+		ClassTypeInfoRecord record = ClassTypeInfoSchema.SCHEMA.getNewRecord(0);
+		record.setByteValue(ClassTypeInfoSchemaFields.TYPEINFO_ID,
+			(byte) TypeId.VMI_CLASS.ordinal());
+		record.setBinaryData(ClassTypeInfoSchemaFields.MODEL_DATA, buf.array());
+		assert GnuClassTypeInfoDB.upgradeRecord(record);
+		byte[] data = record.getBinaryData(ClassTypeInfoSchemaFields.MODEL_DATA);
+		assert data.length < buf.capacity()
+			: String.format("%d bytes were encoded as %d", buf.capacity(), data.length);
+		assert !GnuClassTypeInfoDB.upgradeRecord(record);
+		assert Arrays.equals(GnuClassTypeInfoDB.getBaseKeys(record), baseKeys);
+		assert Arrays.equals(GnuClassTypeInfoDB.getVirtualBaseKeys(record), virtualBaseKeys);
+		assert Arrays.equals(GnuClassTypeInfoDB.getBaseOffsets(record), baseOffsets);
+	}
+
+	@Test
+	public void derivedTypeIndexTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder =
+			new GeneratedTypeInfoProgramBuilder(DERIVED_COUNT, false, true);
+		Program program = builder.getProgram();
+		ClassTypeInfoManagerDB manager = (ClassTypeInfoManagerDB) builder.getManager();
+		List<ClassTypeInfo> types = new ArrayList<>(DERIVED_COUNT);
+		for (int i = 0; i < DERIVED_COUNT; i++) {
+			Address address = builder.getTypeInfoAddress(i);
+			types.add((ClassTypeInfo) manager.getTypeInfo(address, false));
+		}
+		List<ClassTypeInfoDB> result;
+		int id = program.startTransaction("derivedTypeIndexTest");
+		try {
+			result = manager.resolveAll(types);
+		} finally {
+			program.endTransaction(id, true);
+		}
+		long[] keys = result.stream()
+			.mapToLong(ClassTypeInfoDB::getKey)
+			.toArray();
+		Map<Long, Integer> indices = new HashMap<>(DERIVED_COUNT);
+		for (int i = 0; i < DERIVED_COUNT; i++) {
+			indices.put(keys[i], i);
+		}
+		// type i is derived from type (i - 1) / 2
+		for (int i = 0; i < DERIVED_COUNT; i++) {
+			Set<Long> expected = new HashSet<>();
+			for (int j = 2 * i + 1; j <= 2 * i + 2 && j < DERIVED_COUNT; j++) {
+				expected.add(keys[j]);
+			}
+			Set<Long> derived = new HashSet<>();
+			for (long key : manager.getDerivedKeys(keys[i])) {
+				derived.add(key);
+			}
+			assert derived.equals(expected)
+				: "incorrect derived types for " + result.get(i).getName();
+		}
+		long start = System.nanoTime();
+		long[] all = manager.getAllDerivedKeys(keys[0]);
+		long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assert all.length == DERIVED_COUNT - 1
+			: Integer.toString(all.length) + " types were derived from the root";
+		Set<Long> visited = new HashSet<>();
+		visited.add(keys[0]);
+		for (long key : all) {
+			int index = indices.get(key);
+			assert visited.add(key) : "a derived type was listed twice";
+			assert visited.contains(keys[(index - 1) / 2]) : "a type preceded its base";
+		}
+		int leaf = DERIVED_COUNT - 1;
+		assert manager.getAllDerivedKeys(keys[leaf]).length == 0;
+		ClassTypeInfoDB type = result.get(1);
+		id = program.startTransaction("derivedTypeIndexTest");
+		try {
+			manager.deleteAddressRange(type.getAddress(), type.getAddress(), TaskMonitor.DUMMY);
+		} finally {
+			program.endTransaction(id, true);
+		}
+		assert manager.getDerivedKeys(keys[0]).length == 1;
+		assert manager.getDerivedKeys(keys[1]).length == 0;
+		Msg.info(this, String.format(
+			"Found %d types derived from the root in %d ms", all.length, time));
+	}
+
+	@Test
+	public void resolveAllTest() throws Exception {
+		GeneratedTypeInfoProgramBuilder builder =
+			new GeneratedTypeInfoProgramBuilder(RESOLVE_COUNT, false);
+		Program program = builder.getProgram();
+		ProgramClassTypeInfoManager manager = builder.getManager();
+		assert manager.getTypeCount() == 0;
+		List<ClassTypeInfo> types = new ArrayList<>(builder.getTypeCount());
+		for (int i = 0; i < builder.getTypeCount(); i++) {
+			Address address = builder.getTypeInfoAddress(i);
+			types.add((ClassTypeInfo) manager.getTypeInfo(address, false));
+		}
+		// already managed and repeated types must not consume a key
+		List<ClassTypeInfo> request = new ArrayList<>(types);
+		request.addAll(types.subList(0, RESOLVE_COUNT / 4));
+		List<ClassTypeInfoDB> result;
+		int id = program.startTransaction("resolveAllTest");
+		try {
+			for (int i = 0; i < RESOLVE_COUNT / 8; i++) {
+				manager.resolve(types.get(i * 8));
+			}
+			result = manager.resolveAll(request);
+		} finally {
+			program.endTransaction(id, true);
+		}
+		assert manager.getTypeCount() == types.size()
+			: Integer.toString(manager.getTypeCount()) + " types were resolved";
+		assert result.size() == request.size();
+		for (int i = 0; i < request.size(); i++) {
+			assert result.get(i).getAddress().equals(request.get(i).getAddress())
+				: "type at " + request.get(i).getAddress() + " was resolved out of order";
+		}
+		for (ClassTypeInfoDB type : manager.getTypes()) {
+			assert type != null : "an empty preallocated record was left behind";
+		}
+	}
+
+	/**
+	 * Compares resolveAll with resolving each type individually on the largest
+	 * generated program. It is only run when the {@value #BENCHMARK_PROPERTY}
+	 * system property is set as it takes far longer than the rest of the tests.
+	 */
+	@Test
+	public void resolveAllBenchmark() throws Exception {
+		Assume.assumeTrue(Boolean.getBoolean(BENCHMARK_PROPERTY));
+		int count = GeneratedTypeInfoProgramBuilder.MAX_TYPE_COUNT;
+		long individual =
+			resolveTypes(new GeneratedTypeInfoProgramBuilder(count, false), false);
+		long bulk = resolveTypes(new GeneratedTypeInfoProgramBuilder(count, false), true);
+		Msg.info(this, String.format(
+			"Resolved %d types individually in %d ms and all at once in %d ms",
+			count, individual, bulk));
+	}
+
+	private static long resolveTypes(GeneratedTypeInfoProgramBuilder builder, boolean bulk) {
+		Program program = builder.getProgram();
+		ProgramClassTypeInfoManager manager = builder.getManager();
+		List<ClassTypeInfo> types = new ArrayList<>(builder.getTypeCount());
+		for (int i = 0; i < builder.getTypeCount(); i++) {
+			Address address = builder.getTypeInfoAddress(i);
+			types.add((ClassTypeInfo) manager.getTypeInfo(address, false));
+		}
+		long start = System.nanoTime();
+		int id = program.startTransaction("resolveAllBenchmark");
+		try {
+			if (bulk) {
+				manager.resolveAll(types);
+			} else {
+				for (ClassTypeInfo type : types) {
+					manager.resolve(type);
+				}
+			}
+		} finally {
+			program.endTransaction(id, true);
+		}
+		long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assert manager.getTypeCount() == types.size()
+			: Integer.toString(manager.getTypeCount()) + " types were resolved";
+		return time;
+	}
+
+	@Test
+	public void upgradeV0Test() throws Exception {
+		upgradeTest(0);
+	}
+
+	@Test
+	public void upgradeV1Test() throws Exception {
+		upgradeTest(1);
+	}
+
+	private static void upgradeTest(int version) throws Exception {
+		GeneratedTypeInfoProgramBuilder builder =
+			new GeneratedTypeInfoProgramBuilder(UPGRADE_COUNT, true, true);
+		ProgramDB program = (ProgramDB) builder.getProgram();
+		DBHandle handle = program.getDBHandle();
+		Map<Long, ClassTypeInfoRecord> expected = new HashMap<>(UPGRADE_COUNT);
+		RecordIterator iter =
+			handle.getTable(AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME).iterator();
+		while (iter.hasNext()) {
+			ClassTypeInfoRecord record = new ClassTypeInfoRecord(iter.next());
+			expected.put(record.getKey(), record);
+		}
+		assert expected.size() == UPGRADE_COUNT;
+		int id = program.startTransaction("upgradeTest");
+		try {
+			writeOldClassTable(handle, version, expected.values());
+			writeOldVtableTable(handle, expected.keySet());
+			ClassTypeInfoManagerDB manager = new ClassTypeInfoManagerDB(null, program);
+			Table classTable = handle.getTable(AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME);
+			assert ClassTypeInfoSchema.SCHEMA.equals(classTable.getSchema());
+			assert manager.getTypeCount() == UPGRADE_COUNT;
+			for (ClassTypeInfoRecord old : expected.values()) {
+				long key = old.getKey();
+				ClassTypeInfoRecord record = new ClassTypeInfoRecord(classTable.getRecord(key));
+				assert record.getBinaryData(ClassTypeInfoSchemaFields.MODEL_DATA)[0] != 0
+					: "the model data of type " + key + " was not re-encoded";
+				assert Arrays.equals(AbstractClassTypeInfoDB.getBaseKeys(record),
+					AbstractClassTypeInfoDB.getBaseKeys(old))
+					: "the bases of type " + key + " changed";
+				int rank = record.getIntValue(ClassTypeInfoSchemaFields.RANK);
+				assert rank == old.getIntValue(ClassTypeInfoSchemaFields.RANK)
+					: String.format("type %d has rank %d", key, rank);
+				ClassTypeInfoDB type = manager.getType(key);
+				assert type.getTypeName().equals(
+					old.getStringValue(ClassTypeInfoSchemaFields.TYPENAME));
+			}
+			Table vtableTable = handle.getTable(AbstractVtableDB.VTABLE_TABLE_NAME);
+			assert VtableSchema.SCHEMA.equals(vtableTable.getSchema());
+			for (long key : expected.keySet()) {
+				long[] vtables = vtableTable.findRecords(
+					new LongField(key), VtableSchemaFields.CLASS.ordinal());
+				assert vtables.length == 1 && vtables[0] == key
+					: "the vtable of type " + key + " is not indexed";
+			}
+		} finally {
+			program.endTransaction(id, false);
+		}
+	}
+
+	private static void writeOldClassTable(DBHandle handle, int version,
+			Collection<ClassTypeInfoRecord> records) throws Exception {
+		// version 0 has no RANK column which is the last one
+		int fieldCount = version == 0
+			? ClassTypeInfoSchemaFields.RANK.ordinal()
+			: ClassTypeInfoSchemaFields.values().length;
+		Schema schema = new Schema(version, "Key",
+			Arrays.copyOf(ClassTypeInfoSchemaFields.getFields(), fieldCount),
+			Arrays.copyOf(ClassTypeInfoSchemaFields.getFieldNames(), fieldCount));
+		handle.deleteTable(AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME);
+		Table table = handle.createTable(AbstractClassTypeInfoDB.CLASS_TYPEINFO_TABLE_NAME,
+			schema, new int[] {
+				ClassTypeInfoSchemaFields.ADDRESS.ordinal(),
+				ClassTypeInfoSchemaFields.DATATYPE_ID.ordinal()
+			});
+		for (ClassTypeInfoRecord record : records) {
+			db.Record old = schema.createRecord(record.getKey());
+			for (int i = 0; i < fieldCount; i++) {
+				old.setField(i, record.getRecord().getFieldValue(i));
+			}
+			// the legacy model data is a sequence of fixed width arrays
+			long[] baseKeys = AbstractClassTypeInfoDB.getBaseKeys(record);
+			long[] virtualKeys = new long[0];
+			ByteBuffer buf = ByteBuffer.allocate(ClassTypeInfoRecord.getArraySize(baseKeys)
+				+ ClassTypeInfoRecord.getArraySize(virtualKeys));
+			ClassTypeInfoRecord.setLongArray(buf, baseKeys);
+			ClassTypeInfoRecord.setLongArray(buf, virtualKeys);
+			old.setBinaryData(ClassTypeInfoSchemaFields.MODEL_DATA.ordinal(), buf.array());
+			table.putRecord(old);
+		}
+	}
+
+	private static void writeOldVtableTable(DBHandle handle, Collection<Long> classKeys)
+			throws Exception {
+		Schema schema = new Schema(0, "Key",
+			VtableSchemaFields.getFields(), VtableSchemaFields.getFieldNames());
+		handle.deleteTable(AbstractVtableDB.VTABLE_TABLE_NAME);
+		// version 0 only indexed the address
+		Table table = handle.createTable(AbstractVtableDB.VTABLE_TABLE_NAME, schema,
+			new int[] { VtableSchemaFields.ADDRESS.ordinal() });
+		for (long key : classKeys) {
+			db.Record record = schema.createRecord(key);
+			record.setLongValue(VtableSchemaFields.ADDRESS.ordinal(), key);
+			record.setLongValue(VtableSchemaFields.CLASS.ordinal(), key);
+			table.putRecord(record);
+		}
+	}
+
+	private static void checkType(GeneratedTypeInfoProgramBuilder builder, ClassTypeInfoDB type,
+			Address start, Address moved) {
+		assert type != null : "a type was missing during a move";
+		Address address = type.getAddress();
+		long offset = address.subtract(start);
+		if (offset < 0 || offset >= (long) TYPE_COUNT * builder.getTypeInfoSize()) {
+			offset = address.subtract(moved);
+		}
+		assert offset >= 0 && offset % builder.getTypeInfoSize() == 0
+			: "type has an invalid address " + address;
+		int index = (int) (offset / builder.getTypeInfoSize());
+		String name = String.format("6C%05d", index);
+		assert type.getTypeName().equals(name)
+			: String.format("type at %s is %s not %s", address, type.getTypeName(), name);
+	}
+}